@@ -0,0 +1,176 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.benchmarks;
+
+import com.palantir.logsafe.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates synthetic conjure definitions of a given size.
+ *
+ * <p>Types are spread over files of {@value #TYPES_PER_FILE} types each, mixing objects, aliases, enums and unions
+ * with references to collections of other types. Each types file imports the end of a chain of {@code importDepth}
+ * files, each of which imports the previous one. Services are spread over files of {@value #SERVICES_PER_FILE}
+ * services, each with {@value #ENDPOINTS_PER_SERVICE} endpoints referencing the imported types.
+ */
+public final class SyntheticDefinitions {
+    private static final int TYPES_PER_FILE = 100;
+    private static final int SERVICES_PER_FILE = 10;
+    private static final int ENDPOINTS_PER_SERVICE = 10;
+
+    private SyntheticDefinitions() {}
+
+    /** Writes the definitions to {@code directory} and returns the files which should be compiled. */
+    public static List<File> generate(Path directory, int types, int services, int importDepth) throws IOException {
+        Preconditions.checkArgument(services == 0 || types > 0, "Services require at least one type to reference");
+        Files.createDirectories(directory);
+        List<File> files = new ArrayList<>();
+        for (int depth = 0; depth < importDepth; depth++) {
+            files.add(write(directory.resolve("chain-" + depth + ".yml"), chainFile(depth)));
+        }
+        int typeFiles = (types + TYPES_PER_FILE - 1) / TYPES_PER_FILE;
+        for (int file = 0; file < typeFiles; file++) {
+            int count = Math.min(TYPES_PER_FILE, types - file * TYPES_PER_FILE);
+            files.add(write(directory.resolve("types-" + file + ".yml"), typesFile(file, count, importDepth)));
+        }
+        int serviceFiles = (services + SERVICES_PER_FILE - 1) / SERVICES_PER_FILE;
+        for (int file = 0; file < serviceFiles; file++) {
+            int count = Math.min(SERVICES_PER_FILE, services - file * SERVICES_PER_FILE);
+            files.add(write(
+                    directory.resolve("services-" + file + ".yml"),
+                    servicesFile(file, count, Math.min(types, TYPES_PER_FILE))));
+        }
+        return files;
+    }
+
+    private static List<String> chainFile(int depth) {
+        List<String> lines = new ArrayList<>();
+        lines.add("types:");
+        if (depth > 0) {
+            lines.add("  conjure-imports:");
+            lines.add("    previous: chain-" + (depth - 1) + ".yml");
+        }
+        lines.add("  definitions:");
+        lines.add("    default-package: com.palantir.bench.chain" + depth);
+        lines.add("    objects:");
+        lines.add("      Chain" + depth + ":");
+        lines.add("        fields:");
+        lines.add("          name: string");
+        if (depth > 0) {
+            lines.add("          previous: optional<previous.Chain" + (depth - 1) + ">");
+        }
+        return lines;
+    }
+
+    private static List<String> typesFile(int file, int count, int importDepth) {
+        List<String> lines = new ArrayList<>();
+        lines.add("types:");
+        if (importDepth > 0) {
+            lines.add("  conjure-imports:");
+            lines.add("    chain: chain-" + (importDepth - 1) + ".yml");
+        }
+        lines.add("  definitions:");
+        lines.add("    default-package: com.palantir.bench.types" + file);
+        lines.add("    objects:");
+        for (int type = 0; type < count; type++) {
+            String name = typeName(file, type);
+            lines.add("      " + name + ":");
+            lines.add("        docs: Synthetic type " + type + " of file " + file + ".");
+            switch (type % 4) {
+                case 0:
+                    lines.add("        fields:");
+                    lines.add("          id: rid");
+                    lines.add("          count: integer");
+                    lines.add("          tags: set<string>");
+                    if (type > 0) {
+                        lines.add("          previous: list<" + typeName(file, type - 1) + ">");
+                    }
+                    if (type > 1) {
+                        lines.add("          lookup: map<string, optional<" + typeName(file, type - 2) + ">>");
+                    }
+                    if (importDepth > 0) {
+                        lines.add("          chain: optional<chain.Chain" + (importDepth - 1) + ">");
+                    }
+                    break;
+                case 1:
+                    lines.add("        alias: list<" + typeName(file, type - 1) + ">");
+                    break;
+                case 2:
+                    lines.add("        values:");
+                    lines.add("          - FIRST");
+                    lines.add("          - SECOND");
+                    lines.add("          - THIRD");
+                    break;
+                default:
+                    lines.add("        union:");
+                    lines.add("          text: string");
+                    lines.add("          number: double");
+                    lines.add("          previous: " + typeName(file, type - 3));
+                    break;
+            }
+        }
+        return lines;
+    }
+
+    private static List<String> servicesFile(int file, int count, int importedTypes) {
+        List<String> lines = new ArrayList<>();
+        lines.add("types:");
+        lines.add("  conjure-imports:");
+        lines.add("    bench: types-0.yml");
+        lines.add("services:");
+        for (int service = 0; service < count; service++) {
+            String name = "Service" + file + "x" + service;
+            lines.add("  " + name + ":");
+            lines.add("    name: " + name);
+            lines.add("    package: com.palantir.bench.services" + file);
+            lines.add("    base-path: /service" + file + "x" + service);
+            lines.add("    default-auth: header");
+            lines.add("    endpoints:");
+            for (int endpoint = 0; endpoint < ENDPOINTS_PER_SERVICE; endpoint++) {
+                String type = "bench." + typeName(0, (service * ENDPOINTS_PER_SERVICE + endpoint) % importedTypes);
+                lines.add("      get" + endpoint + ":");
+                lines.add("        http: GET /get" + endpoint + "/{id}");
+                lines.add("        args:");
+                lines.add("          id: string");
+                lines.add("          limit:");
+                lines.add("            type: optional<integer>");
+                lines.add("            param-type: query");
+                lines.add("        returns: list<" + type + ">");
+                lines.add("      put" + endpoint + ":");
+                lines.add("        http: PUT /put" + endpoint + "/{id}");
+                lines.add("        args:");
+                lines.add("          id: string");
+                lines.add("          body: " + type);
+                lines.add("        returns: " + type);
+            }
+        }
+        return lines;
+    }
+
+    private static String typeName(int file, int type) {
+        return "Type" + file + "x" + type;
+    }
+
+    private static File write(Path path, List<String> lines) throws IOException {
+        return Files.write(path, lines, StandardCharsets.UTF_8).toFile();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.palantir.conjure.benchmarks.DefinitionsState;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Writing of the IR file by the CLI. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class IrState {
+        private ConjureDefinition definition;
+        private CliConfiguration configuration;
+
+        @Setup(Level.Trial)
+        public void setup(DefinitionsState definitions) throws IOException {
+            definition = Conjure.parse(definitions.files());
+            configuration = CliConfiguration.builder()
+                    .inputFiles(definitions.files())
+                    .outputIrFile(File.createTempFile("conjure-benchmarks", ".json"))
+                    .build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(configuration.outputIrFile().toPath());
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize(IrState state) throws JsonProcessingException {
+        return ConjureCli.OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(state.definition);
+    }
+
+    @Benchmark
+    public void generate(IrState state) {
+        ConjureCli.CompileCommand.generate(state.configuration);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.defs;
+
+import com.palantir.conjure.benchmarks.DefinitionsState;
+import com.palantir.conjure.defs.validator.ConjureDefinitionValidator;
+import com.palantir.conjure.parser.AnnotatedConjureSourceFile;
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.NormalizeDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The stages of compilation which follow parsing: conversion into IR, validation and normalization. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompilationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ParsedState {
+        private List<AnnotatedConjureSourceFile> parsed;
+        private ConjureDefinition definition;
+
+        @Setup(Level.Trial)
+        public void setup(DefinitionsState definitions) {
+            parsed = ConjureParser.parseAnnotated(definitions.files());
+            definition = ConjureParserUtils.parseConjureDef(parsed);
+        }
+    }
+
+    @Benchmark
+    public ConjureDefinition parseConjureDef(ParsedState state) {
+        return ConjureParserUtils.parseConjureDef(state.parsed);
+    }
+
+    @Benchmark
+    public ConjureDefinition validateAll(ParsedState state) {
+        ConjureDefinitionValidator.validateAll(state.definition);
+        return state.definition;
+    }
+
+    @Benchmark
+    public ConjureDefinition normalize(ParsedState state) {
+        return NormalizeDefinition.normalize(state.definition);
+    }
+
+    @Benchmark
+    public ConjureDefinition parse(DefinitionsState definitions) {
+        return Conjure.parse(definitions.files());
+    }
+}
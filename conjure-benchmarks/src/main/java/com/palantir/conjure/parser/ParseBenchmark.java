@@ -0,0 +1,55 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.parser;
+
+import com.palantir.conjure.benchmarks.DefinitionsState;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Deserialization of conjure YAML files, including the resolution of their imports. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Benchmark
+    public void parseEachFile(DefinitionsState state, Blackhole blackhole) {
+        for (File file : state.files()) {
+            blackhole.consume(ConjureParser.parse(file));
+        }
+    }
+
+    @Benchmark
+    public List<AnnotatedConjureSourceFile> parseAnnotated(DefinitionsState state) {
+        return ConjureParser.parseAnnotated(state.files());
+    }
+
+    @Benchmark
+    public List<AnnotatedConjureSourceFile> parseAnnotatedParallel(DefinitionsState state) {
+        return ConjureParser.parseAnnotated(state.files(), Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -33,8 +33,17 @@ public final class Conjure {
      * Deserializes {@link ConjureDefinition} from their YAML representations in the given files.
      */
     public static ConjureDefinition parse(Collection<File> files) {
-        List<AnnotatedConjureSourceFile> sourceFiles = ConjureParser.parseAnnotated(files);
-        ConjureDefinition ir = ConjureParserUtils.parseConjureDef(sourceFiles);
+        return parse(files, ImportResolution.EAGER);
+    }
+
+    /**
+     * Deserializes {@link ConjureDefinition} from their YAML representations in the given files, converting imported
+     * types as specified by {@code importResolution}.
+     */
+    public static ConjureDefinition parse(Collection<File> files, ImportResolution importResolution) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        List<AnnotatedConjureSourceFile> sourceFiles = ConjureParser.parseAnnotated(files, parallelism);
+        ConjureDefinition ir = ConjureParserUtils.parseConjureDef(sourceFiles, parallelism, importResolution);
         return NormalizeDefinition.normalize(ir);
     }
 }
@@ -28,17 +28,17 @@ import com.palantir.conjure.defs.validator.FieldNameValidator;
 import com.palantir.conjure.defs.validator.HttpPathValidator;
 import com.palantir.conjure.defs.validator.ObjectDefinitionValidator;
 import com.palantir.conjure.defs.validator.PackageValidator;
+import com.palantir.conjure.defs.validator.ParsedHttpPath;
 import com.palantir.conjure.defs.validator.ServiceDefinitionValidator;
 import com.palantir.conjure.defs.validator.TypeNameValidator;
 import com.palantir.conjure.defs.validator.UnionDefinitionValidator;
 import com.palantir.conjure.parser.AnnotatedConjureSourceFile;
 import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.ParallelTasks;
 import com.palantir.conjure.parser.services.ParameterName;
 import com.palantir.conjure.parser.services.PathString;
 import com.palantir.conjure.parser.types.NamedTypesDefinition;
 import com.palantir.conjure.parser.types.names.ConjurePackage;
-import com.palantir.conjure.parser.types.names.Namespace;
-import com.palantir.conjure.parser.types.reference.ConjureImports;
 import com.palantir.conjure.spec.AliasDefinition;
 import com.palantir.conjure.spec.ArgumentDefinition;
 import com.palantir.conjure.spec.ArgumentName;
@@ -46,7 +46,6 @@ import com.palantir.conjure.spec.AuthType;
 import com.palantir.conjure.spec.BodyParameterType;
 import com.palantir.conjure.spec.ConjureDefinition;
 import com.palantir.conjure.spec.CookieAuthType;
-import com.palantir.conjure.spec.Documentation;
 import com.palantir.conjure.spec.EndpointDefinition;
 import com.palantir.conjure.spec.EndpointName;
 import com.palantir.conjure.spec.EnumDefinition;
@@ -63,7 +62,6 @@ import com.palantir.conjure.spec.ObjectDefinition;
 import com.palantir.conjure.spec.ParameterId;
 import com.palantir.conjure.spec.ParameterType;
 import com.palantir.conjure.spec.PathParameterType;
-import com.palantir.conjure.spec.PrimitiveType;
 import com.palantir.conjure.spec.QueryParameterType;
 import com.palantir.conjure.spec.ServiceDefinition;
 import com.palantir.conjure.spec.Type;
@@ -76,7 +74,6 @@ import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -117,7 +114,7 @@ public final class ConjureParserUtils {
                 .code(def.code().asSpecErrorCode())
                 .safeArgs(parseField(def.safeArgs(), typeResolver))
                 .unsafeArgs(parseField(def.unsafeArgs(), typeResolver))
-                .docs(def.docs().map(Documentation::of))
+                .docs(def.docs().map(SpecInterners::documentation))
                 .build();
 
         ErrorDefinitionValidator.validate(errorType);
@@ -132,7 +129,7 @@ public final class ConjureParserUtils {
                 .values(def.values().stream()
                         .map(ConjureParserUtils::parseEnumValue)
                         .collect(Collectors.toList()))
-                .docs(def.docs().map(Documentation::of))
+                .docs(def.docs().map(SpecInterners::documentation))
                 .build();
 
         EnumDefinitionValidator.validateAll(enumType);
@@ -146,7 +143,7 @@ public final class ConjureParserUtils {
         UnionDefinition unionType = UnionDefinition.builder()
                 .typeName(name)
                 .union(parseField(def.union(), typeResolver))
-                .docs(def.docs().map(Documentation::of))
+                .docs(def.docs().map(SpecInterners::documentation))
                 .build();
 
         UnionDefinitionValidator.validateAll(unionType);
@@ -160,7 +157,7 @@ public final class ConjureParserUtils {
         ObjectDefinition objectType = ObjectDefinition.builder()
                 .typeName(name)
                 .fields(parseField(def.fields(), typeResolver))
-                .docs(def.docs().map(Documentation::of))
+                .docs(def.docs().map(SpecInterners::documentation))
                 .build();
 
         ObjectDefinitionValidator.validate(objectType);
@@ -173,60 +170,121 @@ public final class ConjureParserUtils {
             ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
         return TypeDefinition.alias(AliasDefinition.builder()
                 .typeName(name)
-                .alias(def.alias().visit(new ConjureTypeParserVisitor(typeResolver)))
-                .docs(def.docs().map(Documentation::of))
+                .alias(def.alias().visit(typeResolver.typeVisitor()))
+                .docs(def.docs().map(SpecInterners::documentation))
                 .build());
     }
 
     public static Type parsePrimitiveType(com.palantir.conjure.parser.types.primitive.PrimitiveType primitiveType) {
-        return Type.primitive(PrimitiveType.valueOf(primitiveType.name()));
+        return SpecInterners.primitive(primitiveType);
     }
 
     public static TypeName createTypeName(
             String name,
             com.palantir.conjure.parser.types.BaseObjectTypeDefinition def,
             Optional<String> defaultPackage) {
-        TypeName type = TypeName.of(name, parsePackageOrElseThrow(def.conjurePackage(), defaultPackage));
+        TypeName type = SpecInterners.typeName(name, parsePackageOrElseThrow(def.conjurePackage(), defaultPackage));
         TypeNameValidator.validate(type);
         return type;
     }
 
     static ConjureDefinition parseConjureDef(Collection<AnnotatedConjureSourceFile> annotatedParsedDefs) {
+        return parseConjureDef(annotatedParsedDefs, 1);
+    }
+
+    /**
+     * Converts the given files on up to {@code parallelism} threads. Files are converted independently and merged in
+     * the order of {@code annotatedParsedDefs}, so the result is identical to sequential conversion.
+     */
+    static ConjureDefinition parseConjureDef(
+            Collection<AnnotatedConjureSourceFile> annotatedParsedDefs, int parallelism) {
+        return parseConjureDef(annotatedParsedDefs, parallelism, ImportResolution.EAGER);
+    }
+
+    static ConjureDefinition parseConjureDef(
+            Collection<AnnotatedConjureSourceFile> annotatedParsedDefs,
+            int parallelism,
+            ImportResolution importResolution) {
+        return mergeConjureDefs(parseConjureFiles(annotatedParsedDefs, parallelism, importResolution));
+    }
+
+    /**
+     * Applies {@link #parseConjureFile} to each of the given files on up to {@code parallelism} threads. Imported files
+     * are converted once and shared between all files that import them.
+     */
+    static List<ConjureDefinition> parseConjureFiles(
+            Collection<AnnotatedConjureSourceFile> annotatedParsedDefs, int parallelism) {
+        return parseConjureFiles(annotatedParsedDefs, parallelism, ImportResolution.EAGER);
+    }
+
+    static List<ConjureDefinition> parseConjureFiles(
+            Collection<AnnotatedConjureSourceFile> annotatedParsedDefs,
+            int parallelism,
+            ImportResolution importResolution) {
+        ImportedTypes importedTypes = new ImportedTypes(importResolution, new SymbolTable());
+        return ParallelTasks.map(
+                annotatedParsedDefs,
+                annotatedParsed -> parseConjureFile(annotatedParsed, importedTypes),
+                parallelism,
+                "conjure-converter-%d");
+    }
+
+    /**
+     * Converts the types, errors and services declared locally in a single file. The result is not validated as a
+     * whole; callers are expected to combine the results for all files using {@link #mergeConjureDefs}.
+     */
+    static ConjureDefinition parseConjureFile(AnnotatedConjureSourceFile annotatedParsed) {
+        return parseConjureFile(annotatedParsed, new ImportedTypes());
+    }
+
+    private static ConjureDefinition parseConjureFile(
+            AnnotatedConjureSourceFile annotatedParsed, ImportedTypes importedTypes) {
+        ConjureSourceFile parsed = annotatedParsed.conjureSourceFile();
+
+        try {
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver =
+                    importedTypes.symbols().resolver(parsed.types());
+
+            // Resolve objects first, so we can use them in service validations
+            Map<TypeName, TypeDefinition> objects = parseObjects(parsed.types(), typeResolver);
+            Map<TypeName, TypeDefinition> allObjects = importedTypes.withImports(
+                    objects,
+                    annotatedParsed.sourceFile().getAbsoluteFile().toPath().getParent(),
+                    parsed.types().conjureImports());
+
+            DealiasingTypeVisitor dealiasingVisitor = new DealiasingTypeVisitor(allObjects);
+
+            ImmutableList.Builder<ServiceDefinition> servicesBuilder = ImmutableList.builder();
+            parsed.services().forEach((serviceName, service) -> {
+                servicesBuilder.add(parseService(
+                        service,
+                        SpecInterners.typeName(serviceName.name(), parseConjurePackage(service.conjurePackage())),
+                        typeResolver,
+                        dealiasingVisitor));
+            });
+
+            return ConjureDefinition.builder()
+                    .version(Conjure.SUPPORTED_IR_VERSION)
+                    .types(objects.values())
+                    .errors(parseErrors(parsed.types().definitions(), typeResolver))
+                    .services(servicesBuilder.build())
+                    .build();
+        } catch (RuntimeException e) {
+            throw new RuntimeException(
+                    String.format("Encountered error trying to parse file '%s'", annotatedParsed.sourceFile()), e);
+        }
+    }
+
+    /** Combines the per-file results of {@link #parseConjureFile} and validates the complete definition. */
+    static ConjureDefinition mergeConjureDefs(Collection<ConjureDefinition> fileDefs) {
         ImmutableList.Builder<ServiceDefinition> servicesBuilder = ImmutableList.builder();
         ImmutableList.Builder<ErrorDefinition> errorsBuilder = ImmutableList.builder();
         ImmutableList.Builder<TypeDefinition> typesBuilder = ImmutableList.builder();
 
-        annotatedParsedDefs.forEach(annotatedParsed -> {
-            ConjureSourceFile parsed = annotatedParsed.conjureSourceFile();
-
-            try {
-                ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver =
-                        new ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver(parsed.types());
-
-                // Resolve objects first, so we can use them in service validations
-                Map<TypeName, TypeDefinition> objects = parseObjects(parsed.types(), typeResolver);
-                Map<TypeName, TypeDefinition> importedObjects =
-                        parseImportObjects(parsed.types().conjureImports());
-                Map<TypeName, TypeDefinition> allObjects = new HashMap<>();
-                allObjects.putAll(objects);
-                allObjects.putAll(importedObjects);
-
-                DealiasingTypeVisitor dealiasingVisitor = new DealiasingTypeVisitor(allObjects);
-
-                parsed.services().forEach((serviceName, service) -> {
-                    servicesBuilder.add(parseService(
-                            service,
-                            TypeName.of(serviceName.name(), parseConjurePackage(service.conjurePackage())),
-                            typeResolver,
-                            dealiasingVisitor));
-                });
-
-                typesBuilder.addAll(objects.values());
-                errorsBuilder.addAll(parseErrors(parsed.types().definitions(), typeResolver));
-            } catch (RuntimeException e) {
-                throw new RuntimeException(
-                        String.format("Encountered error trying to parse file '%s'", annotatedParsed.sourceFile()), e);
-            }
+        fileDefs.forEach(fileDef -> {
+            servicesBuilder.addAll(fileDef.getServices());
+            errorsBuilder.addAll(fileDef.getErrors());
+            typesBuilder.addAll(fileDef.getTypes());
         });
 
         ConjureDefinition definition = ConjureDefinition.builder()
@@ -240,22 +298,6 @@ public final class ConjureParserUtils {
         return definition;
     }
 
-    /*
-     * Recursively resolve all imported types
-     */
-    private static Map<TypeName, TypeDefinition> parseImportObjects(Map<Namespace, ConjureImports> conjureImports) {
-        Map<TypeName, TypeDefinition> allDefinitions = new HashMap<>();
-        conjureImports.values().forEach(conjureImport -> {
-            ConjureSourceFile conjureDef = conjureImport.conjure();
-            ReferenceTypeResolver importTypeResolver =
-                    new ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver(conjureDef.types());
-            allDefinitions.putAll(parseImportObjects(conjureDef.types().conjureImports()));
-            allDefinitions.putAll(parseObjects(conjureDef.types(), importTypeResolver));
-        });
-
-        return allDefinitions;
-    }
-
     static ServiceDefinition parseService(
             com.palantir.conjure.parser.services.ServiceDefinition parsed,
             TypeName serviceName,
@@ -272,7 +314,7 @@ public final class ConjureParserUtils {
                         dealiasingVisitor)));
         ServiceDefinition service = ServiceDefinition.builder()
                 .serviceName(serviceName)
-                .docs(parsed.docs().map(Documentation::of))
+                .docs(parsed.docs().map(SpecInterners::documentation))
                 .addAllEndpoints(endpoints)
                 .build();
 
@@ -300,7 +342,7 @@ public final class ConjureParserUtils {
         ImmutableList.Builder<ErrorDefinition> errorsBuidler = ImmutableList.builder();
         errorsBuidler.addAll(defs.errors().entrySet().stream()
                 .map(entry -> {
-                    TypeName typeName = TypeName.of(
+                    TypeName typeName = SpecInterners.typeName(
                             entry.getKey().name(),
                             parsePackageOrElseThrow(entry.getValue().conjurePackage(), defaultPackage));
                     return parseErrorType(typeName, entry.getValue(), typeResolver);
@@ -313,8 +355,8 @@ public final class ConjureParserUtils {
             com.palantir.conjure.parser.types.complex.EnumValueDefinition def) {
         EnumValueDefinition enumValue = EnumValueDefinition.builder()
                 .value(def.value())
-                .docs(def.docs().map(Documentation::of))
-                .deprecated(def.deprecated().map(Documentation::of))
+                .docs(def.docs().map(SpecInterners::documentation))
+                .deprecated(def.deprecated().map(SpecInterners::documentation))
                 .build();
 
         EnumValueDefinitionValidator.validateAll(enumValue);
@@ -331,9 +373,9 @@ public final class ConjureParserUtils {
                 .map(entry -> {
                     FieldDefinition fieldDefinition = FieldDefinition.builder()
                             .fieldName(parseFieldName(entry.getKey()))
-                            .type(entry.getValue().type().visit(new ConjureTypeParserVisitor(typeResolver)))
-                            .docs(entry.getValue().docs().map(Documentation::of))
-                            .deprecated(entry.getValue().deprecated().map(Documentation::of))
+                            .type(entry.getValue().type().visit(typeResolver.typeVisitor()))
+                            .docs(entry.getValue().docs().map(SpecInterners::documentation))
+                            .deprecated(entry.getValue().deprecated().map(SpecInterners::documentation))
                             .build();
                     FieldDefinitionValidator.validate(fieldDefinition);
                     return fieldDefinition;
@@ -367,9 +409,9 @@ public final class ConjureParserUtils {
                         .peek(tag -> Preconditions.checkArgument(!tag.isEmpty(), "tag must not be empty"))
                         .collect(Collectors.toSet()))
                 .markers(parseMarkers(def.markers(), typeResolver))
-                .returns(def.returns().map(t -> t.visit(new ConjureTypeParserVisitor(typeResolver))))
-                .docs(def.docs().map(Documentation::of))
-                .deprecated(def.deprecated().map(Documentation::of))
+                .returns(def.returns().map(t -> t.visit(typeResolver.typeVisitor())))
+                .docs(def.docs().map(SpecInterners::documentation))
+                .deprecated(def.deprecated().map(SpecInterners::documentation))
                 .build();
 
         EndpointDefinitionValidator.validateAll(endpoint, dealiasingVisitor);
@@ -403,16 +445,17 @@ public final class ConjureParserUtils {
             HttpPath httpPath,
             ReferenceTypeResolver typeResolver) {
         ImmutableList.Builder<ArgumentDefinition> resultBuilder = ImmutableList.builder();
+        Set<ArgumentName> pathArgs = ParsedHttpPath.of(httpPath).pathArgs();
         for (Map.Entry<ParameterName, com.palantir.conjure.parser.services.ArgumentDefinition> entry :
                 args.entrySet()) {
             com.palantir.conjure.parser.services.ArgumentDefinition original = entry.getValue();
             ArgumentName argName = ArgumentName.of(entry.getKey().name());
-            ParameterType paramType = parseParameterType(original, argName, httpPath);
+            ParameterType paramType = parseParameterType(original, argName, pathArgs);
             ArgumentDefinition.Builder builder = ArgumentDefinition.builder()
                     .argName(argName)
-                    .type(original.type().visit(new ConjureTypeParserVisitor(typeResolver)))
+                    .type(original.type().visit(typeResolver.typeVisitor()))
                     .paramType(paramType)
-                    .docs(original.docs().map(Documentation::of))
+                    .docs(original.docs().map(SpecInterners::documentation))
                     .markers(parseMarkers(original.markers(), typeResolver))
                     .tags(original.tags().stream()
                             .peek(tag -> Preconditions.checkArgument(!tag.isEmpty(), "tag must not be empty"))
@@ -425,13 +468,11 @@ public final class ConjureParserUtils {
     private static ParameterType parseParameterType(
             com.palantir.conjure.parser.services.ArgumentDefinition argumentDef,
             ArgumentName argName,
-            HttpPath httpPath) {
-
-        Set<ArgumentName> args = HttpPathValidator.pathArgs(httpPath.get());
+            Set<ArgumentName> pathArgs) {
         switch (argumentDef.paramType()) {
             case AUTO:
                 // AUTO type
-                if (args.contains(argName)) {
+                if (pathArgs.contains(argName)) {
                     // argument exists in request line -- it is a path arg
                     return ParameterType.path(PathParameterType.of());
                 } else {
@@ -459,7 +500,7 @@ public final class ConjureParserUtils {
             Set<com.palantir.conjure.parser.types.ConjureType> markers,
             ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
         return markers.stream()
-                .map(m -> m.visit(new ConjureTypeParserVisitor(typeResolver)))
+                .map(m -> m.visit(typeResolver.typeVisitor()))
                 .collect(Collectors.toSet());
     }
 }
@@ -34,7 +34,6 @@ import com.palantir.conjure.parser.types.reference.ForeignReferenceType;
 import com.palantir.conjure.parser.types.reference.LocalReferenceType;
 import com.palantir.conjure.spec.ExternalReference;
 import com.palantir.conjure.spec.Type;
-import com.palantir.conjure.spec.TypeName;
 import java.util.Optional;
 
 /** The core translator between parsed/raw types and the IR spec representation exposed to compilers. */
@@ -44,15 +43,27 @@ public final class ConjureTypeParserVisitor implements ConjureTypeVisitor<Type>
         Type resolve(LocalReferenceType reference);
 
         Type resolve(ForeignReferenceType reference);
+
+        /** Returns a visitor which converts types using this resolver; implementations may return a shared instance. */
+        default ConjureTypeParserVisitor typeVisitor() {
+            return new ConjureTypeParserVisitor(this);
+        }
     }
 
     // TODO(rfink): Add explicit test coverage
     public static final class ByParsedRepresentationTypeNameResolver implements ReferenceTypeResolver {
 
         private final TypesDefinition types;
+        private final ConjureTypeParserVisitor typeVisitor;
 
         public ByParsedRepresentationTypeNameResolver(TypesDefinition types) {
             this.types = types;
+            this.typeVisitor = new ConjureTypeParserVisitor(this);
+        }
+
+        @Override
+        public ConjureTypeParserVisitor typeVisitor() {
+            return typeVisitor;
         }
 
         @Override
@@ -68,7 +79,7 @@ public final class ConjureTypeParserVisitor implements ConjureTypeVisitor<Type>
                     reference.type(), conjureImports.conjure().types());
         }
 
-        private static Type resolveFromTypeName(
+        static Type resolveFromTypeName(
                 com.palantir.conjure.parser.types.names.TypeName name, TypesDefinition types) {
             Optional<String> defaultPackage =
                     types.definitions().defaultConjurePackage().map(ConjureParserUtils::parseConjurePackage);
@@ -87,15 +98,15 @@ public final class ConjureTypeParserVisitor implements ConjureTypeVisitor<Type>
                 conjurePackage = externalPath.substring(0, lastIndex);
                 typeName = externalPath.substring(lastIndex + 1);
 
-                return Type.external(ExternalReference.builder()
-                        .externalReference(TypeName.of(typeName, conjurePackage))
+                return SpecInterners.type(Type.external(ExternalReference.builder()
+                        .externalReference(SpecInterners.typeName(typeName, conjurePackage))
                         .fallback(ConjureParserUtils.parsePrimitiveType(maybeExternalDef.baseType()))
-                        .build());
+                        .build()));
             } else {
                 // Conjure-defined object
                 conjurePackage =
                         ConjureParserUtils.parsePackageOrElseThrow(maybeDirectDef.conjurePackage(), defaultPackage);
-                return Type.reference(TypeName.of(name.name(), conjurePackage));
+                return SpecInterners.type(Type.reference(SpecInterners.typeName(name.name(), conjurePackage)));
             }
         }
     }
@@ -108,24 +119,24 @@ public final class ConjureTypeParserVisitor implements ConjureTypeVisitor<Type>
 
     @Override
     public Type visitAny(AnyType _type) {
-        return Type.primitive(com.palantir.conjure.spec.PrimitiveType.ANY);
+        return SpecInterners.ANY;
     }
 
     @Override
     public Type visitList(ListType type) {
-        return Type.list(com.palantir.conjure.spec.ListType.of(type.itemType().visit(this)));
+        return SpecInterners.type(Type.list(com.palantir.conjure.spec.ListType.of(type.itemType().visit(this))));
     }
 
     @Override
     public Type visitMap(MapType type) {
-        return Type.map(com.palantir.conjure.spec.MapType.of(
-                type.keyType().visit(this), type.valueType().visit(this)));
+        return SpecInterners.type(Type.map(com.palantir.conjure.spec.MapType.of(
+                type.keyType().visit(this), type.valueType().visit(this))));
     }
 
     @Override
     public Type visitOptional(OptionalType type) {
-        return Type.optional(
-                com.palantir.conjure.spec.OptionalType.of(type.itemType().visit(this)));
+        return SpecInterners.type(
+                Type.optional(com.palantir.conjure.spec.OptionalType.of(type.itemType().visit(this))));
     }
 
     @Override
@@ -145,16 +156,16 @@ public final class ConjureTypeParserVisitor implements ConjureTypeVisitor<Type>
 
     @Override
     public Type visitSet(SetType type) {
-        return Type.set(com.palantir.conjure.spec.SetType.of(type.itemType().visit(this)));
+        return SpecInterners.type(Type.set(com.palantir.conjure.spec.SetType.of(type.itemType().visit(this))));
     }
 
     @Override
     public Type visitBinary(BinaryType _type) {
-        return Type.primitive(com.palantir.conjure.spec.PrimitiveType.BINARY);
+        return SpecInterners.BINARY;
     }
 
     @Override
     public Type visitDateTime(DateTimeType _type) {
-        return Type.primitive(com.palantir.conjure.spec.PrimitiveType.DATETIME);
+        return SpecInterners.DATETIME;
     }
 }
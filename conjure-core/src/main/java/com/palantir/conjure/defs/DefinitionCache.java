@@ -0,0 +1,304 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.palantir.conjure.parser.AnnotatedConjureSourceFile;
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.NormalizeDefinition;
+import com.palantir.conjure.parser.types.reference.ConjureImports;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A content-addressed, on-disk cache of the definitions declared by individual conjure files.
+ *
+ * <p>Each file is keyed by the SHA-256 hash of its bytes combined with the keys of all files it (transitively)
+ * imports and the version of conjure which converted it, so an entry can only be reused if neither the file nor
+ * anything it depends on nor the conversion has changed. The declared imports of every file are recorded alongside
+ * its content hash, which allows keys for unchanged files to be computed without deserializing any YAML. Only files
+ * without a cached entry are parsed and converted; the complete definition is always re-validated.
+ *
+ * <p>Entries are written atomically, so a cache directory may be shared between concurrent compilations. Reading an
+ * entry marks it as recently used, and once a compilation has written new entries, the least recently used ones
+ * beyond {@value #MAX_ENTRIES} are deleted.
+ */
+public final class DefinitionCache {
+    // bump whenever the conversion of conjure files into IR changes in a way that invalidates existing entries
+    private static final String CACHE_VERSION = "1";
+    // only set in published jars; when running from classes, changes to the conversion need a fresh cache directory
+    private static final String CONJURE_VERSION = Optional.ofNullable(
+                    DefinitionCache.class.getPackage().getImplementationVersion())
+            .orElse("unknown");
+    private static final int MAX_ENTRIES = 10_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new Jdk8Module())
+            .setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
+    private static final TypeReference<List<String>> IMPORTS_TYPE = new TypeReference<List<String>>() {};
+
+    private final Path importsDirectory;
+    private final Path definitionsDirectory;
+    private final int maxEntries;
+
+    private DefinitionCache(Path directory, int maxEntries) {
+        this.importsDirectory = directory.resolve("imports");
+        this.definitionsDirectory = directory.resolve("definitions-v" + CACHE_VERSION);
+        this.maxEntries = maxEntries;
+    }
+
+    public static DefinitionCache create(Path directory) {
+        return new DefinitionCache(directory, MAX_ENTRIES);
+    }
+
+    @VisibleForTesting
+    static DefinitionCache create(Path directory, int maxEntries) {
+        return new DefinitionCache(directory, maxEntries);
+    }
+
+    /**
+     * Equivalent to {@link Conjure#parse(Collection)}, but reuses cached definitions for all files whose content and
+     * imports are unchanged.
+     */
+    public ConjureDefinition parse(Collection<File> files) {
+        Compilation compilation = new Compilation();
+        Map<File, ConjureDefinition> fileDefs = new LinkedHashMap<>();
+        List<File> misses = new ArrayList<>();
+        for (File file : files) {
+            Optional<ConjureDefinition> cached = compilation.key(file).flatMap(this::readDefinition);
+            if (cached.isPresent()) {
+                fileDefs.put(file, cached.get());
+            } else {
+                fileDefs.put(file, null);
+                misses.add(file);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            List<AnnotatedConjureSourceFile> parsed = ConjureParser.parseAnnotated(misses, parallelism);
+            List<ConjureDefinition> converted = ConjureParserUtils.parseConjureFiles(parsed, parallelism);
+            for (int i = 0; i < parsed.size(); i++) {
+                AnnotatedConjureSourceFile annotated = parsed.get(i);
+                ConjureDefinition fileDef = converted.get(i);
+                compilation.recordImports(annotated.sourceFile(), annotated.conjureSourceFile());
+                compilation.key(annotated.sourceFile()).ifPresent(key -> writeDefinition(key, fileDef));
+                fileDefs.put(annotated.sourceFile(), fileDef);
+            }
+            evict(definitionsDirectory);
+            evict(importsDirectory);
+        }
+
+        ConjureDefinition ir = ConjureParserUtils.mergeConjureDefs(fileDefs.values());
+        return NormalizeDefinition.normalize(ir);
+    }
+
+    private Optional<ConjureDefinition> readDefinition(String key) {
+        Path path = definitionsDirectory.resolve(key + ".json");
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            ConjureDefinition definition = MAPPER.readValue(path.toFile(), ConjureDefinition.class);
+            markUsed(path);
+            return Optional.of(definition);
+        } catch (IOException e) {
+            // a corrupt or incompatible entry is treated as a miss and overwritten
+            return Optional.empty();
+        }
+    }
+
+    private static void markUsed(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // the entry is still valid, and at worst is evicted earlier than necessary
+        }
+    }
+
+    /** Deletes the least recently used entries of the given directory beyond {@link #maxEntries}. */
+    private void evict(Path directory) {
+        List<Path> entries;
+        try (Stream<Path> paths = Files.list(directory)) {
+            entries = paths.filter(path -> path.getFileName().toString().endsWith(".json"))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            // eviction is best effort, and is retried by the next compilation which writes entries
+            return;
+        }
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        Map<Path, Long> lastUsed = new HashMap<>();
+        for (Path entry : entries) {
+            lastUsed.put(entry, entry.toFile().lastModified());
+        }
+        entries.sort(Comparator.comparing(lastUsed::get));
+        for (Path entry : entries.subList(0, entries.size() - maxEntries)) {
+            try {
+                Files.deleteIfExists(entry);
+            } catch (IOException e) {
+                // another compilation may be using or evicting the same entry, in which case it is left to them
+            }
+        }
+    }
+
+    private void writeDefinition(String key, ConjureDefinition definition) {
+        write(definitionsDirectory.resolve(key + ".json"), definition);
+    }
+
+    private static void write(Path path, Object value) {
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                MAPPER.writeValue(temp.toFile(), value);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write conjure cache entry " + path, e);
+        }
+    }
+
+    /** Hashes and keys computed during a single compilation, during which input files are assumed not to change. */
+    private final class Compilation {
+        private final Map<String, String> contentHashes = new HashMap<>();
+        private final Map<String, String> keys = new HashMap<>();
+        private final Set<String> inProgress = new HashSet<>();
+        private final Set<String> recorded = new HashSet<>();
+
+        /**
+         * Returns the cache key of the given file, or empty if the declared imports of the file or one of its
+         * transitive imports are not yet known.
+         */
+        Optional<String> key(File file) {
+            String path = file.getAbsolutePath();
+            String existing = keys.get(path);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            if (!inProgress.add(path)) {
+                // leave reporting of cyclic imports to the parser
+                return Optional.empty();
+            }
+            Optional<String> key = computeKey(file);
+            inProgress.remove(path);
+            key.ifPresent(value -> keys.put(path, value));
+            return key;
+        }
+
+        private Optional<String> computeKey(File file) {
+            Optional<String> contentHash = contentHash(file);
+            if (!contentHash.isPresent()) {
+                return Optional.empty();
+            }
+            Optional<List<String>> imports = readImports(contentHash.get());
+            if (!imports.isPresent()) {
+                return Optional.empty();
+            }
+
+            Hasher hasher = Hashing.sha256().newHasher();
+            hasher.putString(CONJURE_VERSION, StandardCharsets.UTF_8);
+            hasher.putString(contentHash.get(), StandardCharsets.UTF_8);
+            for (String importedFile : new TreeSet<>(imports.get())) {
+                Optional<String> importKey = key(file.toPath().resolveSibling(importedFile).toFile());
+                if (!importKey.isPresent()) {
+                    return Optional.empty();
+                }
+                hasher.putString(importedFile, StandardCharsets.UTF_8);
+                hasher.putString(importKey.get(), StandardCharsets.UTF_8);
+            }
+            return Optional.of(hasher.hash().toString());
+        }
+
+        /** Records the declared imports of a successfully parsed file and, recursively, of everything it imports. */
+        void recordImports(File file, ConjureSourceFile parsed) {
+            Optional<String> contentHash = contentHash(file);
+            if (!contentHash.isPresent() || !recorded.add(file.getAbsolutePath())) {
+                return;
+            }
+            List<String> imports = new ArrayList<>();
+            for (ConjureImports conjureImport : parsed.types().conjureImports().values()) {
+                imports.add(conjureImport.file());
+                recordImports(file.toPath().resolveSibling(conjureImport.file()).toFile(), conjureImport.conjure());
+            }
+            if (!readImports(contentHash.get()).isPresent()) {
+                write(importsDirectory.resolve(contentHash.get() + ".json"), imports);
+            }
+        }
+
+        private Optional<String> contentHash(File file) {
+            String path = file.getAbsolutePath();
+            String existing = contentHashes.get(path);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            try {
+                String hash = Hashing.sha256()
+                        .hashBytes(Files.readAllBytes(file.toPath()))
+                        .toString();
+                contentHashes.put(path, hash);
+                return Optional.of(hash);
+            } catch (IOException e) {
+                // missing imports are reported by the parser
+                return Optional.empty();
+            }
+        }
+
+        private Optional<List<String>> readImports(String contentHash) {
+            Path path = importsDirectory.resolve(contentHash + ".json");
+            if (!Files.isRegularFile(path)) {
+                return Optional.empty();
+            }
+            try {
+                List<String> imports = MAPPER.readValue(path.toFile(), IMPORTS_TYPE);
+                markUsed(path);
+                return Optional.of(imports);
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+    }
+}
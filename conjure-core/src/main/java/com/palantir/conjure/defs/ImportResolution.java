@@ -0,0 +1,30 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+/** How the types declared in imported conjure files are converted while compiling the files that import them. */
+public enum ImportResolution {
+    /** Converts and validates every type of every (transitively) imported file. */
+    EAGER,
+
+    /**
+     * Converts an imported type only when it is first looked up while converting or validating an importing file.
+     * Imported types that are never referenced are neither converted nor validated, unless the file that declares them
+     * is itself compiled.
+     */
+    LAZY
+}
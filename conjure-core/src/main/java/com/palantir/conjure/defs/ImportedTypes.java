@@ -0,0 +1,195 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.types.TypesDefinition;
+import com.palantir.conjure.parser.types.names.ConjurePackage;
+import com.palantir.conjure.parser.types.names.Namespace;
+import com.palantir.conjure.parser.types.reference.ConjureImports;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Converts the types of imported conjure files, memoized by the canonical path of each imported file. Within a single
+ * compilation, a file imported by many others (directly or transitively) is converted and validated only once, and
+ * the resulting type index is shared between all importers.
+ *
+ * <p>With {@link ImportResolution#LAZY}, only the names of imported types are resolved up front; each type is converted
+ * when first looked up, and the converted definition is shared between all importers.
+ *
+ * <p>Instances are safe to share between threads that convert different files of the same compilation.
+ */
+final class ImportedTypes {
+    private final ImportResolution resolution;
+    private final SymbolTable symbols;
+    private final ConcurrentMap<Path, Supplier<ImmutableMap<TypeName, TypeDefinition>>> cache =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<Path, Supplier<ImmutableMap<TypeName, Supplier<TypeDefinition>>>> lazyCache =
+            new ConcurrentHashMap<>();
+
+    ImportedTypes() {
+        this(ImportResolution.EAGER, new SymbolTable());
+    }
+
+    ImportedTypes(ImportResolution resolution, SymbolTable symbols) {
+        this.resolution = resolution;
+        this.symbols = symbols;
+    }
+
+    /** The symbol table used to resolve references, including those made from within imported files. */
+    SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * Returns the given locally declared types together with all types declared in the given imports and,
+     * transitively, in the files they import. Import paths are resolved relative to {@code baseDir}, the directory of
+     * the importing file.
+     */
+    Map<TypeName, TypeDefinition> withImports(
+            Map<TypeName, TypeDefinition> localTypes, Path baseDir, Map<Namespace, ConjureImports> conjureImports) {
+        if (resolution == ImportResolution.LAZY) {
+            return new LazyTypeMap(localTypes, resolveLazily(baseDir, conjureImports));
+        }
+        Map<TypeName, TypeDefinition> allObjects = new HashMap<>();
+        allObjects.putAll(localTypes);
+        allObjects.putAll(resolve(baseDir, conjureImports));
+        return allObjects;
+    }
+
+    /**
+     * Returns all types declared in the given imports and, transitively, in the files they import. Import paths are
+     * resolved relative to {@code baseDir}, the directory of the importing file.
+     */
+    ImmutableMap<TypeName, TypeDefinition> resolve(Path baseDir, Map<Namespace, ConjureImports> conjureImports) {
+        if (conjureImports.size() == 1) {
+            ConjureImports conjureImport = conjureImports.values().iterator().next();
+            return resolve(baseDir.resolve(conjureImport.file()), conjureImport.conjure());
+        }
+        Map<TypeName, TypeDefinition> allDefinitions = new HashMap<>();
+        conjureImports.values().forEach(conjureImport -> allDefinitions.putAll(
+                resolve(baseDir.resolve(conjureImport.file()), conjureImport.conjure())));
+        return ImmutableMap.copyOf(allDefinitions);
+    }
+
+    private ImmutableMap<TypeName, TypeDefinition> resolve(Path file, ConjureSourceFile conjureDef) {
+        // the memoized supplier converts each file once, while threads resolving the same file wait for it; it is
+        // called outside of computeIfAbsent, which does not support the recursive updates made for nested imports
+        Path path = file.toAbsolutePath().normalize();
+        return cache.computeIfAbsent(path, _path -> Suppliers.memoize(() -> convert(path, conjureDef))).get();
+    }
+
+    private ImmutableMap<TypeName, TypeDefinition> convert(Path path, ConjureSourceFile conjureDef) {
+        ConjureTypeParserVisitor.ReferenceTypeResolver importTypeResolver = symbols.resolver(conjureDef.types());
+        Map<TypeName, TypeDefinition> allDefinitions = new HashMap<>();
+        allDefinitions.putAll(resolve(path.getParent(), conjureDef.types().conjureImports()));
+        allDefinitions.putAll(ConjureParserUtils.parseObjects(conjureDef.types(), importTypeResolver));
+        return ImmutableMap.copyOf(allDefinitions);
+    }
+
+    private ImmutableMap<TypeName, Supplier<TypeDefinition>> resolveLazily(
+            Path baseDir, Map<Namespace, ConjureImports> conjureImports) {
+        if (conjureImports.size() == 1) {
+            ConjureImports conjureImport = conjureImports.values().iterator().next();
+            return resolveLazily(baseDir.resolve(conjureImport.file()), conjureImport.conjure());
+        }
+        Map<TypeName, Supplier<TypeDefinition>> allDefinitions = new HashMap<>();
+        conjureImports.values().forEach(conjureImport -> allDefinitions.putAll(
+                resolveLazily(baseDir.resolve(conjureImport.file()), conjureImport.conjure())));
+        return ImmutableMap.copyOf(allDefinitions);
+    }
+
+    private ImmutableMap<TypeName, Supplier<TypeDefinition>> resolveLazily(Path file, ConjureSourceFile conjureDef) {
+        Path path = file.toAbsolutePath().normalize();
+        return lazyCache.computeIfAbsent(path, _path -> Suppliers.memoize(() -> convertLazily(path, conjureDef))).get();
+    }
+
+    private ImmutableMap<TypeName, Supplier<TypeDefinition>> convertLazily(Path path, ConjureSourceFile conjureDef) {
+        TypesDefinition types = conjureDef.types();
+        ConjureTypeParserVisitor.ReferenceTypeResolver importTypeResolver = symbols.resolver(types);
+        Optional<String> defaultPackage = types.definitions().defaultConjurePackage().map(ConjurePackage::name);
+        Map<TypeName, Supplier<TypeDefinition>> allDefinitions = new HashMap<>();
+        allDefinitions.putAll(resolveLazily(path.getParent(), types.conjureImports()));
+        types.definitions().objects().forEach((name, def) -> allDefinitions.put(
+                ConjureParserUtils.createTypeName(name.name(), def, defaultPackage),
+                Suppliers.memoize(() -> def.visit(
+                        new TypeDefinitionParserVisitor(name.name(), defaultPackage, importTypeResolver)))));
+
+        return ImmutableMap.copyOf(allDefinitions);
+    }
+
+    /**
+     * Local types together with lazily converted imported types. Lookups only convert the requested type, and key and
+     * size queries convert none; iterating over entries or values converts all imported types.
+     */
+    private static final class LazyTypeMap extends AbstractMap<TypeName, TypeDefinition> {
+        private final Map<TypeName, TypeDefinition> localTypes;
+        private final Map<TypeName, Supplier<TypeDefinition>> importedTypes;
+
+        LazyTypeMap(Map<TypeName, TypeDefinition> localTypes, Map<TypeName, Supplier<TypeDefinition>> importedTypes) {
+            this.localTypes = localTypes;
+            this.importedTypes = importedTypes;
+        }
+
+        @Override
+        public TypeDefinition get(Object key) {
+            // imported types take precedence, as for eagerly resolved imports
+            Supplier<TypeDefinition> imported = importedTypes.get(key);
+            return imported != null ? imported.get() : localTypes.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return importedTypes.containsKey(key) || localTypes.containsKey(key);
+        }
+
+        @Override
+        public Set<TypeName> keySet() {
+            return Sets.union(importedTypes.keySet(), localTypes.keySet());
+        }
+
+        @Override
+        public int size() {
+            return keySet().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return importedTypes.isEmpty() && localTypes.isEmpty();
+        }
+
+        @Override
+        public Set<Entry<TypeName, TypeDefinition>> entrySet() {
+            Map<TypeName, TypeDefinition> allObjects = new HashMap<>(localTypes);
+            importedTypes.forEach((name, definition) -> allObjects.put(name, definition.get()));
+            return allObjects.entrySet();
+        }
+    }
+}
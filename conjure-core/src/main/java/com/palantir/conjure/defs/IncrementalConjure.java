@@ -0,0 +1,155 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.parser.AnnotatedConjureSourceFile;
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.NormalizeDefinition;
+import com.palantir.conjure.parser.types.reference.ConjureImports;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The result of compiling a set of conjure files, retaining enough state to cheaply recompile after some of the files
+ * have changed.
+ *
+ * <p>On {@link #recompile}, only the input files that changed, were added, or (transitively) import a changed file are
+ * parsed and converted again; the definitions of all other files are reused from this compilation. The combined
+ * definition is then re-validated as a whole, since validations such as name uniqueness and recursive types span
+ * files.
+ *
+ * <p>Instances are immutable and may be shared between threads.
+ */
+public final class IncrementalConjure {
+    private final ImmutableMap<String, File> inputs;
+    private final ImmutableMap<String, ConjureDefinition> fileDefinitions;
+    private final ImmutableMap<String, ImmutableSet<String>> imports;
+    private final ConjureDefinition definition;
+
+    private IncrementalConjure(
+            ImmutableMap<String, File> inputs,
+            ImmutableMap<String, ConjureDefinition> fileDefinitions,
+            ImmutableMap<String, ImmutableSet<String>> imports) {
+        this.inputs = inputs;
+        this.fileDefinitions = fileDefinitions;
+        this.imports = imports;
+        this.definition = NormalizeDefinition.normalize(ConjureParserUtils.mergeConjureDefs(inputs.keySet().stream()
+                .map(fileDefinitions::get)
+                .collect(Collectors.toList())));
+    }
+
+    /** Compiles the given files from scratch; equivalent to {@link Conjure#parse(Collection)}. */
+    public static IncrementalConjure compile(Collection<File> files) {
+        return new IncrementalConjure(ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of())
+                .recompile(files, ImmutableSet.of());
+    }
+
+    /**
+     * Compiles {@code files}, reusing the results of this compilation for every file which is not itself in
+     * {@code changedFiles} and does not (transitively) import a file in {@code changedFiles}. Files which were not
+     * inputs of this compilation are always compiled, and files which are no longer inputs are dropped.
+     */
+    public IncrementalConjure recompile(Collection<File> files, Collection<File> changedFiles) {
+        Map<String, File> newInputs = new LinkedHashMap<>();
+        files.forEach(file -> newInputs.put(key(file), file));
+
+        Set<String> affected = affectedBy(
+                changedFiles.stream().map(IncrementalConjure::key).collect(Collectors.toSet()));
+        List<File> toCompile = newInputs.entrySet().stream()
+                .filter(entry -> !fileDefinitions.containsKey(entry.getKey()) || affected.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+
+        Map<String, ConjureDefinition> newFileDefinitions = new HashMap<>();
+        newInputs.keySet().stream()
+                .filter(fileDefinitions::containsKey)
+                .forEach(path -> newFileDefinitions.put(path, fileDefinitions.get(path)));
+        Map<String, ImmutableSet<String>> newImports = new HashMap<>(imports);
+        Set<String> recorded = new HashSet<>();
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        List<AnnotatedConjureSourceFile> parsed = ConjureParser.parseAnnotated(toCompile, parallelism);
+        List<ConjureDefinition> converted = ConjureParserUtils.parseConjureFiles(parsed, parallelism);
+        for (int i = 0; i < parsed.size(); i++) {
+            AnnotatedConjureSourceFile annotated = parsed.get(i);
+            newFileDefinitions.put(key(annotated.sourceFile()), converted.get(i));
+            recordImports(annotated.sourceFile(), annotated.conjureSourceFile(), newImports, recorded);
+        }
+
+        return new IncrementalConjure(
+                ImmutableMap.copyOf(newInputs),
+                ImmutableMap.copyOf(newFileDefinitions),
+                ImmutableMap.copyOf(newImports));
+    }
+
+    /** The normalized, validated definition of all input files. */
+    public ConjureDefinition definition() {
+        return definition;
+    }
+
+    /** Returns the given files together with every file that (transitively) imports one of them. */
+    private Set<String> affectedBy(Set<String> changed) {
+        Map<String, Set<String>> importedBy = new HashMap<>();
+        imports.forEach((file, imported) -> imported.forEach(importedFile ->
+                importedBy.computeIfAbsent(importedFile, _file -> new HashSet<>()).add(file)));
+
+        Set<String> affected = new HashSet<>(changed);
+        Deque<String> queue = new ArrayDeque<>(changed);
+        while (!queue.isEmpty()) {
+            for (String importer : importedBy.getOrDefault(queue.pop(), ImmutableSet.of())) {
+                if (affected.add(importer)) {
+                    queue.push(importer);
+                }
+            }
+        }
+        return affected;
+    }
+
+    private static void recordImports(
+            File file,
+            ConjureSourceFile parsed,
+            Map<String, ImmutableSet<String>> importsByFile,
+            Set<String> recorded) {
+        if (!recorded.add(key(file))) {
+            return;
+        }
+        ImmutableSet.Builder<String> direct = ImmutableSet.builder();
+        for (ConjureImports conjureImport : parsed.types().conjureImports().values()) {
+            File importedFile = file.toPath().resolveSibling(conjureImport.file()).toFile();
+            direct.add(key(importedFile));
+            recordImports(importedFile, conjureImport.conjure(), importsByFile, recorded);
+        }
+        importsByFile.put(key(file), direct.build());
+    }
+
+    private static String key(File file) {
+        return file.toPath().toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Maps;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeName;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Canonical instances of the spec objects that recur throughout converted definitions, so that structurally equal
+ * types, type names and docs share a single instance and compare by reference. Interned instances are weakly held and
+ * do not outlive the definitions that use them.
+ */
+final class SpecInterners {
+    private static final Interner<Type> TYPES = Interners.newWeakInterner();
+    private static final Interner<TypeName> TYPE_NAMES = Interners.newWeakInterner();
+    private static final Interner<Documentation> DOCUMENTATION = Interners.newWeakInterner();
+
+    private static final ImmutableMap<com.palantir.conjure.parser.types.primitive.PrimitiveType, Type> PRIMITIVES =
+            Maps.immutableEnumMap(Arrays.stream(com.palantir.conjure.parser.types.primitive.PrimitiveType.values())
+                    .collect(ImmutableMap.toImmutableMap(
+                            Function.identity(),
+                            primitive -> Type.primitive(PrimitiveType.valueOf(primitive.name())))));
+
+    static final Type ANY = PRIMITIVES.get(com.palantir.conjure.parser.types.primitive.PrimitiveType.ANY);
+    static final Type BINARY = Type.primitive(PrimitiveType.BINARY);
+    static final Type DATETIME = Type.primitive(PrimitiveType.DATETIME);
+
+    private SpecInterners() {}
+
+    static Type type(Type type) {
+        return TYPES.intern(type);
+    }
+
+    static Type primitive(com.palantir.conjure.parser.types.primitive.PrimitiveType primitiveType) {
+        return PRIMITIVES.get(primitiveType);
+    }
+
+    static TypeName typeName(String name, String conjurePackage) {
+        return TYPE_NAMES.intern(TypeName.of(name, conjurePackage));
+    }
+
+    static Documentation documentation(String docs) {
+        return DOCUMENTATION.intern(Documentation.of(docs));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.google.common.base.Equivalence;
+import com.google.common.base.Preconditions;
+import com.palantir.conjure.defs.ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver;
+import com.palantir.conjure.defs.ConjureTypeParserVisitor.ReferenceTypeResolver;
+import com.palantir.conjure.parser.types.TypesDefinition;
+import com.palantir.conjure.parser.types.names.TypeName;
+import com.palantir.conjure.parser.types.reference.ConjureImports;
+import com.palantir.conjure.parser.types.reference.ForeignReferenceType;
+import com.palantir.conjure.parser.types.reference.LocalReferenceType;
+import com.palantir.conjure.spec.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The resolved spec {@link Type} of every type name referenced during a single compilation, shared between all files.
+ * Each name is resolved against its declaring file once, so later references (including those through imports from
+ * other files) are a single lookup and return the same {@link Type} instance.
+ *
+ * <p>Files are identified by their parsed {@link TypesDefinition} instance, which the parser shares between all
+ * importers of the same file. Instances are safe to share between threads.
+ */
+final class SymbolTable {
+    // keyed by identity, which avoids hashing entire parsed files; entries live as long as the compilation
+    private final ConcurrentMap<Equivalence.Wrapper<TypesDefinition>, FileSymbols> files = new ConcurrentHashMap<>();
+
+    /** Returns the resolver for references made from within the file with the given types. */
+    ReferenceTypeResolver resolver(TypesDefinition types) {
+        return symbols(types);
+    }
+
+    private FileSymbols symbols(TypesDefinition types) {
+        return files.computeIfAbsent(Equivalence.identity().wrap(types), _key -> new FileSymbols(types));
+    }
+
+    private final class FileSymbols implements ReferenceTypeResolver {
+        private final TypesDefinition types;
+        private final ConcurrentMap<TypeName, Type> resolved = new ConcurrentHashMap<>();
+        private final ConjureTypeParserVisitor typeVisitor = new ConjureTypeParserVisitor(this);
+
+        private FileSymbols(TypesDefinition types) {
+            this.types = types;
+        }
+
+        @Override
+        public Type resolve(LocalReferenceType reference) {
+            return resolve(reference.type());
+        }
+
+        @Override
+        public Type resolve(ForeignReferenceType reference) {
+            ConjureImports conjureImports = types.conjureImports().get(reference.namespace());
+            Preconditions.checkNotNull(conjureImports, "Import not found for namespace: %s", reference.namespace());
+            return symbols(conjureImports.conjure().types()).resolve(reference.type());
+        }
+
+        @Override
+        public ConjureTypeParserVisitor typeVisitor() {
+            return typeVisitor;
+        }
+
+        private Type resolve(TypeName name) {
+            Type existing = resolved.get(name);
+            if (existing != null) {
+                return existing;
+            }
+            // unknown names are not recorded, so that every reference to them fails in the same way
+            Type type = ByParsedRepresentationTypeNameResolver.resolveFromTypeName(name, types);
+            existing = resolved.putIfAbsent(name, type);
+            return existing != null ? existing : type;
+        }
+    }
+}
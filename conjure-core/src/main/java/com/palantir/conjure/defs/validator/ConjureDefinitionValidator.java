@@ -19,32 +19,27 @@ package com.palantir.conjure.defs.validator;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
+import com.palantir.conjure.ConjureDefinitionIndex;
 import com.palantir.conjure.defs.Conjure;
 import com.palantir.conjure.spec.AliasDefinition;
 import com.palantir.conjure.spec.ConjureDefinition;
-import com.palantir.conjure.spec.EnumDefinition;
-import com.palantir.conjure.spec.ErrorDefinition;
-import com.palantir.conjure.spec.FieldDefinition;
-import com.palantir.conjure.spec.ObjectDefinition;
-import com.palantir.conjure.spec.ServiceDefinition;
 import com.palantir.conjure.spec.Type;
 import com.palantir.conjure.spec.TypeDefinition;
 import com.palantir.conjure.spec.TypeName;
-import com.palantir.conjure.spec.UnionDefinition;
-import com.palantir.conjure.visitor.DealiasingTypeVisitor;
 import com.palantir.conjure.visitor.TypeDefinitionVisitor;
 import com.palantir.conjure.visitor.TypeVisitor;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @com.google.errorprone.annotations.Immutable
 public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefinition> {
@@ -55,10 +50,23 @@ public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefini
     NO_NESTED_OPTIONAL(new NoNestedOptionalValidator()),
     ILLEGAL_MAP_KEYS(new IllegalMapKeyValidator());
 
+    /**
+     * Runs all validators, sharing one index and {@link TypeRegistry} of the definition between them. Validators which
+     * check individual type occurrences are evaluated together in a single walk over the definition.
+     */
     public static void validateAll(ConjureDefinition definition) {
-        for (ConjureValidator<ConjureDefinition> validator : values()) {
-            validator.validate(definition);
+        TypeRegistry registry = TypeRegistry.of(ConjureDefinitionIndex.of(definition));
+        ImmutableList.Builder<TypeOccurrenceRule> rules = ImmutableList.builder();
+        for (ConjureDefinitionValidator validator : values()) {
+            if (validator.validator instanceof TypeOccurrenceRule) {
+                rules.add((TypeOccurrenceRule) validator.validator);
+            } else if (validator.validator instanceof TypeRegistryRule) {
+                ((TypeRegistryRule) validator.validator).validate(registry);
+            } else {
+                validator.validate(definition);
+            }
         }
+        TypeOccurrenceValidator.validate(definition, rules.build(), DefinitionTypes.of(registry.index()));
     }
 
     private final ConjureValidator<ConjureDefinition> validator;
@@ -122,290 +130,154 @@ public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefini
         }
     }
 
+    /**
+     * Rejects objects and aliases which (transitively) contain themselves through direct references, i.e. not wrapped
+     * in an optional, collection or union. Runs a single colour-marking depth-first search over the
+     * {@link TypeRegistry} reference graph, so each type and reference is visited at most once.
+     */
     @com.google.errorprone.annotations.Immutable
-    private static final class NoRecursiveTypesValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class NoRecursiveTypesValidator
+            implements ConjureValidator<ConjureDefinition>, TypeRegistryRule {
+        private static final Comparator<TypeName> CYCLE_START_ORDER =
+                Comparator.comparing(TypeName::getPackage).thenComparing(TypeName::getName);
+
         @Override
         public void validate(ConjureDefinition definition) {
-            // create mapping from object type name -> names of reference types that are fields of that type
-            Multimap<TypeName, TypeName> typeToRefFields = HashMultimap.create();
-
-            definition.getTypes().forEach(type -> getReferenceType(type)
-                    .ifPresent(entry -> typeToRefFields.put(type.accept(TypeDefinitionVisitor.TYPE_NAME), entry)));
-
-            for (TypeName name : typeToRefFields.keySet()) {
-                verifyTypeHasNoRecursiveDefinitions(name, typeToRefFields, new ArrayList<>());
-            }
+            validate(TypeRegistry.of(ConjureDefinitionIndex.of(definition)));
         }
 
-        private static Optional<TypeName> getReferenceType(TypeDefinition typeDef) {
-            if (typeDef.accept(TypeDefinitionVisitor.IS_OBJECT)) {
-                ObjectDefinition objectDef = typeDef.accept(TypeDefinitionVisitor.OBJECT);
-                for (FieldDefinition currField : objectDef.getFields()) {
-                    Optional<TypeName> referenceType = resolveReferenceType(currField.getType());
-                    if (referenceType.isPresent()) {
-                        return referenceType;
-                    }
+        @Override
+        public void validate(TypeRegistry registry) {
+            BitSet finished = new BitSet(registry.size());
+            int[] path = new int[registry.size()];
+            int[] pathIndex = new int[registry.size()];
+            int[] cursor = new int[registry.size()];
+            Arrays.fill(pathIndex, -1);
+            for (int id = 0; id < registry.size(); id++) {
+                if (!finished.get(id)) {
+                    verifyTypeHasNoRecursiveDefinitions(id, registry, finished, path, pathIndex, cursor);
                 }
-            } else if (typeDef.accept(TypeDefinitionVisitor.IS_ALIAS)) {
-                AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
-                return resolveReferenceType(aliasDef.getAlias());
             }
-            return Optional.empty();
         }
 
-        private static Optional<TypeName> resolveReferenceType(Type type) {
-            if (type.accept(TypeVisitor.IS_REFERENCE)) {
-                return Optional.of(type.accept(TypeVisitor.REFERENCE));
-            } else if (type.accept(TypeVisitor.IS_PRIMITIVE)) {
-                return Optional.of(
-                        TypeName.of(type.accept(TypeVisitor.PRIMITIVE).get().name(), ""));
-            }
-            return Optional.empty();
-        }
+        /**
+         * Iterative depth-first search from {@code root}. {@code path} holds the types on the current path and
+         * {@code cursor} the next reference to explore for each of them, while {@code pathIndex} holds the position of
+         * each type on the path, or -1, so that a reference back to one of them yields the cycle directly. Types whose
+         * references have been fully explored are marked {@code finished} and never visited again.
+         */
+        private static void verifyTypeHasNoRecursiveDefinitions(
+                int root, TypeRegistry registry, BitSet finished, int[] path, int[] pathIndex, int[] cursor) {
+            int depth = 0;
+            path[0] = root;
+            cursor[0] = 0;
+            pathIndex[root] = 0;
+            while (depth >= 0) {
+                int current = path[depth];
+                int[] references = registry.directReferences(current);
+                if (cursor[depth] == references.length) {
+                    pathIndex[current] = -1;
+                    finished.set(current);
+                    depth--;
+                    continue;
+                }
 
-        private void verifyTypeHasNoRecursiveDefinitions(
-                TypeName typeName, Multimap<TypeName, TypeName> typeMap, List<TypeName> path) {
-            if (path.contains(typeName)) {
-                path.add(typeName);
-                throw new IllegalStateException("Illegal recursive data type: "
-                        + Joiner.on(" -> ").join(Lists.transform(path, TypeName::getName)));
+                int next = references[cursor[depth]++];
+                if (pathIndex[next] >= 0) {
+                    List<TypeName> cycle = new ArrayList<>();
+                    for (int i = pathIndex[next]; i <= depth; i++) {
+                        cycle.add(registry.name(path[i]));
+                    }
+                    throw new IllegalStateException("Illegal recursive data type: " + describeCycle(cycle));
+                }
+                if (!finished.get(next)) {
+                    depth++;
+                    path[depth] = next;
+                    cursor[depth] = 0;
+                    pathIndex[next] = depth;
+                }
             }
+        }
 
-            path.add(typeName);
-            for (TypeName currField : typeMap.get(typeName)) {
-                verifyTypeHasNoRecursiveDefinitions(currField, typeMap, path);
-            }
-            path.remove(path.size() - 1);
+        /** Formats a cycle starting from its smallest type, so that the message doesn't depend on iteration order. */
+        private static String describeCycle(List<TypeName> cycle) {
+            int start = cycle.indexOf(Collections.min(cycle, CYCLE_START_ORDER));
+            List<TypeName> rotated = new ArrayList<>(cycle.size() + 1);
+            rotated.addAll(cycle.subList(start, cycle.size()));
+            rotated.addAll(cycle.subList(0, start));
+            rotated.add(rotated.get(0));
+            return Joiner.on(" -> ").join(Lists.transform(rotated, TypeName::getName));
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    public static final class NoNestedOptionalValidator implements ConjureValidator<ConjureDefinition> {
+    public static final class NoNestedOptionalValidator
+            implements ConjureValidator<ConjureDefinition>, TypeOccurrenceRule {
         @Override
         public void validate(ConjureDefinition definition) {
-            // create mapping for resolving reference types during validation
-            Map<TypeName, TypeDefinition> definitionMap = definition.getTypes().stream()
-                    .collect(Collectors.toMap(entry -> entry.accept(TypeDefinitionVisitor.TYPE_NAME), entry -> entry));
-            definition.getTypes().forEach(def -> validateTypeDefinition(def, definitionMap));
-            definition.getErrors().forEach(def -> validateErrorDefinition(def, definitionMap));
-            definition.getServices().forEach(def -> validateServiceDefinition(def, definitionMap));
-        }
-
-        private static void validateServiceDefinition(
-                ServiceDefinition serviceDef, Map<TypeName, TypeDefinition> definitionMap) {
-            serviceDef.getEndpoints().forEach(endpoint -> {
-                endpoint.getArgs().stream()
-                        .filter(arg -> recursivelyFindNestedOptionals(arg.getType(), definitionMap, false))
-                        .findAny()
-                        .ifPresent(_arg -> {
-                            throw new IllegalStateException(
-                                    "Illegal nested optionals found in one of the arguments of endpoint "
-                                            + endpoint.getEndpointName().get());
-                        });
-                endpoint.getReturns().ifPresent(returnType -> {
-                    if (recursivelyFindNestedOptionals(returnType, definitionMap, false)) {
-                        throw new IllegalStateException("Illegal nested optionals found in return type of endpoint "
-                                + endpoint.getEndpointName().get());
-                    }
-                });
-            });
+            TypeOccurrenceValidator.validate(definition, ImmutableList.of(this));
         }
 
-        private static void validateErrorDefinition(
-                ErrorDefinition errorDef, Map<TypeName, TypeDefinition> definitionMap) {
-            Stream.concat(errorDef.getSafeArgs().stream(), errorDef.getUnsafeArgs().stream())
-                    .filter(arg -> recursivelyFindNestedOptionals(arg.getType(), definitionMap, false))
-                    .findAny()
-                    .ifPresent(_arg -> {
-                        throw new IllegalStateException("Illegal nested optionals found in one of arguments of error "
-                                + errorDef.getErrorName().getName());
-                    });
+        @Override
+        public String violation() {
+            return "Illegal nested optionals";
         }
 
-        private static void validateTypeDefinition(
-                TypeDefinition typeDef, Map<TypeName, TypeDefinition> definitionMap) {
-
-            typeDef.accept(new TypeDefinition.Visitor<Void>() {
-                @Override
-                public Void visitAlias(AliasDefinition _value) {
-                    AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
-                    if (recursivelyFindNestedOptionals(aliasDef.getAlias(), definitionMap, false)) {
-                        throw new IllegalStateException("Illegal nested optionals found in alias "
-                                + aliasDef.getTypeName().getName());
-                    }
-                    return null;
-                }
-
-                @Override
-                public Void visitObject(ObjectDefinition _value) {
-                    ObjectDefinition objectDefinition = typeDef.accept(TypeDefinitionVisitor.OBJECT);
-                    objectDefinition.getFields().stream()
-                            .filter(fieldDefinition ->
-                                    recursivelyFindNestedOptionals(fieldDefinition.getType(), definitionMap, false))
-                            .findAny()
-                            .ifPresent(_found -> {
-                                throw new IllegalStateException("Illegal nested optionals found in object "
-                                        + objectDefinition.getTypeName().getName());
-                            });
-                    return null;
-                }
-
-                @Override
-                public Void visitUnion(UnionDefinition _value) {
-                    UnionDefinition unionDefinition = typeDef.accept(TypeDefinitionVisitor.UNION);
-                    unionDefinition.getUnion().stream()
-                            .filter(fieldDefinition ->
-                                    recursivelyFindNestedOptionals(fieldDefinition.getType(), definitionMap, false))
-                            .findAny()
-                            .ifPresent(_found -> {
-                                throw new IllegalStateException("Illegal nested optionals found in union "
-                                        + unionDefinition.getTypeName().getName());
-                            });
-                    return null;
-                }
-
-                @Override
-                public Void visitEnum(EnumDefinition _value) {
-                    return null;
-                }
-
-                @Override
-                public Void visitUnknown(String _unknownType) {
-                    return null;
-                }
-            });
+        @Override
+        public boolean isIllegal(Type type, DefinitionTypes types) {
+            return recursivelyFindNestedOptionals(type, types, false);
         }
 
         private static boolean recursivelyFindNestedOptionals(
-                Type type, Map<TypeName, TypeDefinition> definitionMap, boolean isOptionalSeen) {
+                Type type, DefinitionTypes types, boolean isOptionalSeen) {
             if (type.accept(TypeVisitor.IS_REFERENCE)) {
-                TypeDefinition referenceDefinition = definitionMap.get(type.accept(TypeVisitor.REFERENCE));
+                Optional<TypeDefinition> referenceDefinition = types.get(type.accept(TypeVisitor.REFERENCE));
                 // we only care about reference of alias type
-                if (referenceDefinition != null && referenceDefinition.accept(TypeDefinitionVisitor.IS_ALIAS)) {
-                    AliasDefinition aliasDef = referenceDefinition.accept(TypeDefinitionVisitor.ALIAS);
-                    return recursivelyFindNestedOptionals(aliasDef.getAlias(), definitionMap, isOptionalSeen);
+                if (referenceDefinition.isPresent()
+                        && referenceDefinition.get().accept(TypeDefinitionVisitor.IS_ALIAS)) {
+                    AliasDefinition aliasDef = referenceDefinition.get().accept(TypeDefinitionVisitor.ALIAS);
+                    return recursivelyFindNestedOptionals(aliasDef.getAlias(), types, isOptionalSeen);
                 }
             } else if (type.accept(TypeVisitor.IS_OPTIONAL)) {
                 if (isOptionalSeen) {
                     return true;
                 }
-                return recursivelyFindNestedOptionals(
-                        type.accept(TypeVisitor.OPTIONAL).getItemType(), definitionMap, true);
+                return recursivelyFindNestedOptionals(type.accept(TypeVisitor.OPTIONAL).getItemType(), types, true);
             }
             return false;
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    private static final class IllegalMapKeyValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class IllegalMapKeyValidator
+            implements ConjureValidator<ConjureDefinition>, TypeOccurrenceRule {
 
         @Override
         public void validate(ConjureDefinition definition) {
-            // create mapping for resolving reference types during validation
-            Map<TypeName, TypeDefinition> definitionMap = definition.getTypes().stream()
-                    .collect(Collectors.toMap(entry -> entry.accept(TypeDefinitionVisitor.TYPE_NAME), entry -> entry));
-            definition.getTypes().forEach(def -> validateTypeDefinition(def, definitionMap));
-            definition.getErrors().forEach(def -> validateErrorDefinition(def, definitionMap));
-            definition.getServices().forEach(def -> validateServiceDefinition(def, definitionMap));
-        }
-
-        private static void validateServiceDefinition(
-                ServiceDefinition serviceDef, Map<TypeName, TypeDefinition> definitionMap) {
-            serviceDef.getEndpoints().forEach(endpoint -> {
-                endpoint.getArgs().stream()
-                        .filter(arg -> recursivelyFindIllegalKeys(arg.getType(), definitionMap, false))
-                        .findAny()
-                        .ifPresent(_arg -> {
-                            throw new IllegalStateException("Illegal map key found in one of the arguments of endpoint "
-                                    + endpoint.getEndpointName().get());
-                        });
-                endpoint.getReturns().ifPresent(returnType -> {
-                    if (recursivelyFindIllegalKeys(returnType, definitionMap, false)) {
-                        throw new IllegalStateException("Illegal map key found in return type of endpoint "
-                                + endpoint.getEndpointName().get());
-                    }
-                });
-            });
+            TypeOccurrenceValidator.validate(definition, ImmutableList.of(this));
         }
 
-        private static void validateErrorDefinition(
-                ErrorDefinition errorDef, Map<TypeName, TypeDefinition> definitionMap) {
-            Stream.concat(errorDef.getSafeArgs().stream(), errorDef.getUnsafeArgs().stream())
-                    .filter(arg -> recursivelyFindIllegalKeys(arg.getType(), definitionMap, false))
-                    .findAny()
-                    .ifPresent(_arg -> {
-                        throw new IllegalStateException("Illegal map key found in one of arguments of error "
-                                + errorDef.getErrorName().getName());
-                    });
+        @Override
+        public String violation() {
+            return "Illegal map key";
         }
 
-        private static void validateTypeDefinition(
-                TypeDefinition typeDef, Map<TypeName, TypeDefinition> definitionMap) {
-
-            typeDef.accept(new TypeDefinition.Visitor<Void>() {
-                @Override
-                public Void visitAlias(AliasDefinition _value) {
-                    AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
-                    if (recursivelyFindIllegalKeys(aliasDef.getAlias(), definitionMap, false)) {
-                        throw new IllegalStateException("Illegal map key found in alias "
-                                + aliasDef.getTypeName().getName());
-                    }
-                    return null;
-                }
-
-                @Override
-                public Void visitObject(ObjectDefinition _value) {
-                    ObjectDefinition objectDefinition = typeDef.accept(TypeDefinitionVisitor.OBJECT);
-                    objectDefinition.getFields().stream()
-                            .filter(fieldDefinition ->
-                                    recursivelyFindIllegalKeys(fieldDefinition.getType(), definitionMap, false))
-                            .findAny()
-                            .ifPresent(_found -> {
-                                throw new IllegalStateException("Illegal map key found in object "
-                                        + objectDefinition.getTypeName().getName());
-                            });
-                    return null;
-                }
-
-                @Override
-                public Void visitUnion(UnionDefinition _value) {
-                    UnionDefinition unionDefinition = typeDef.accept(TypeDefinitionVisitor.UNION);
-                    unionDefinition.getUnion().stream()
-                            .filter(fieldDefinition ->
-                                    recursivelyFindIllegalKeys(fieldDefinition.getType(), definitionMap, false))
-                            .findAny()
-                            .ifPresent(_found -> {
-                                throw new IllegalStateException("Illegal map key found in union "
-                                        + unionDefinition.getTypeName().getName());
-                            });
-                    return null;
-                }
-
-                @Override
-                public Void visitEnum(EnumDefinition _value) {
-                    return null;
-                }
-
-                @Override
-                public Void visitUnknown(String _unknownType) {
-                    return null;
-                }
-            });
+        @Override
+        public boolean isIllegal(Type type, DefinitionTypes types) {
+            return recursivelyFindIllegalKeys(type, types, false);
         }
 
-        private static boolean recursivelyFindIllegalKeys(
-                Type type, Map<TypeName, TypeDefinition> definitionMap, boolean isMapKey) {
+        private static boolean recursivelyFindIllegalKeys(Type type, DefinitionTypes types, boolean isMapKey) {
             if (type.accept(TypeVisitor.IS_MAP)) {
                 if (isMapKey) {
                     return true;
                 }
-                return recursivelyFindIllegalKeys(type.accept(TypeVisitor.MAP).getKeyType(), definitionMap, true)
-                        || recursivelyFindIllegalKeys(
-                                type.accept(TypeVisitor.MAP).getKeyType(), definitionMap, false);
+                return recursivelyFindIllegalKeys(type.accept(TypeVisitor.MAP).getKeyType(), types, true)
+                        || recursivelyFindIllegalKeys(type.accept(TypeVisitor.MAP).getKeyType(), types, false);
             }
 
             if (isMapKey) {
-                return new DealiasingTypeVisitor(definitionMap)
+                return types.dealiasingVisitor()
                         .dealias(type)
                         .fold(
                                 typeDefinition -> !typeDefinition.accept(TypeDefinitionVisitor.IS_ENUM),
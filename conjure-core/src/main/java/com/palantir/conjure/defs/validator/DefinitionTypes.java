@@ -0,0 +1,44 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.defs.validator;
+
+import com.palantir.conjure.ConjureDefinitionIndex;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.DealiasingTypeVisitor;
+import java.util.Optional;
+
+/** Index of the types declared by a {@link ConjureDefinition}, built once and shared by all validation rules. */
+final class DefinitionTypes {
+    private final ConjureDefinitionIndex index;
+
+    private DefinitionTypes(ConjureDefinitionIndex index) {
+        this.index = index;
+    }
+
+    static DefinitionTypes of(ConjureDefinitionIndex index) {
+        return new DefinitionTypes(index);
+    }
+
+    Optional<TypeDefinition> get(TypeName name) {
+        return index.type(name);
+    }
+
+    DealiasingTypeVisitor dealiasingVisitor() {
+        return index.dealiasingVisitor();
+    }
+}
@@ -203,8 +203,7 @@ public enum EndpointDefinitionValidator implements ConjureContextualValidator<En
                                 description);
                     });
 
-            Set<ArgumentName> pathArgs =
-                    HttpPathValidator.pathArgs(definition.getHttpPath().get());
+            Set<ArgumentName> pathArgs = ParsedHttpPath.of(definition.getHttpPath()).pathArgs();
             Set<ArgumentName> extraParams = Sets.difference(pathParamIds, pathArgs);
             Preconditions.checkState(
                     extraParams.isEmpty(),
@@ -17,19 +17,14 @@
 package com.palantir.conjure.defs.validator;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Splitter;
 import com.palantir.conjure.spec.ArgumentName;
 import com.palantir.conjure.spec.HttpPath;
 import com.palantir.util.syntacticpath.Path;
-import com.palantir.util.syntacticpath.Paths;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import org.glassfish.jersey.uri.UriTemplate;
-import org.glassfish.jersey.uri.internal.UriTemplateParser;
 
 public final class HttpPathValidator {
 
@@ -45,13 +40,13 @@ public final class HttpPathValidator {
      * returns path arguments of the http path.
      */
     public static Set<ArgumentName> pathArgs(String httpPath) {
-        UriTemplate uriTemplate = new UriTemplate(httpPath);
-        return uriTemplate.getTemplateVariables().stream().map(ArgumentName::of).collect(Collectors.toSet());
+        return ParsedHttpPath.of(httpPath).pathArgs();
     }
 
     /** validates if a new instance has the correct syntax. */
     public static void validate(HttpPath httpPath) {
-        Path path = Paths.get(httpPath.get());
+        ParsedHttpPath parsed = ParsedHttpPath.of(httpPath);
+        Path path = parsed.syntacticPath();
         Preconditions.checkArgument(
                 path.isAbsolute(), "Conjure paths must be absolute, i.e., start with '/': %s", path);
         Preconditions.checkArgument(
@@ -73,15 +68,13 @@ public final class HttpPathValidator {
 
         // verify that path template variables are unique
         Set<String> templateVars = new HashSet<>();
-        new UriTemplate(path.toString()).getTemplateVariables().forEach(var -> {
+        parsed.templateVariables().forEach(var -> {
             Preconditions.checkState(
                     !templateVars.contains(var), "Path parameter %s appears more than once in path %s", var, path);
             templateVars.add(var);
         });
 
-        UriTemplateParser uriTemplateParser = new UriTemplateParser(path.toString());
-        Map<String, Pattern> nameToPattern = uriTemplateParser.getNameToPattern();
-        List<String> segments = Splitter.on('/').splitToList(uriTemplateParser.getNormalizedTemplate());
+        List<String> segments = parsed.templateSegments();
         for (int i = 0; i < segments.size(); i++) {
             String segment = segments.get(i);
             if (!(segment.startsWith("{") && segment.endsWith("}"))) {
@@ -90,20 +83,20 @@ public final class HttpPathValidator {
             }
 
             // variable
-            Pattern varPattern = nameToPattern.get(segment.substring(1, segment.length() - 1));
-            if (varPattern.equals(UriTemplateParser.TEMPLATE_VALUE_PATTERN)) {
+            Optional<Pattern> varPattern = parsed.variablePattern(segment.substring(1, segment.length() - 1));
+            if (!varPattern.isPresent()) {
                 // no regular expression specified -- OK
                 continue;
             }
 
             // if regular expression was specified, it must be ".+" or ".*" based on invariant previously enforced
             Preconditions.checkState(
-                    i == segments.size() - 1 || !varPattern.pattern().equals(".*"),
+                    i == segments.size() - 1 || !varPattern.get().pattern().equals(".*"),
                     "Path parameter %s in path %s specifies regular expression %s, but this regular "
                             + "expression is only permitted if the path parameter is the last segment",
                     segment,
                     path,
-                    varPattern);
+                    varPattern.get());
         }
     }
 
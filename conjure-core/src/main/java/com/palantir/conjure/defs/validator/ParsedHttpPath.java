@@ -0,0 +1,104 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.defs.ConjureImmutablesStyle;
+import com.palantir.conjure.spec.ArgumentName;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.util.syntacticpath.Path;
+import com.palantir.util.syntacticpath.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.immutables.value.Value;
+
+/**
+ * The parsed form of an {@link HttpPath}, shared by argument classification and all validators which inspect the path
+ * template of an endpoint. Each component is computed at most once per distinct path, for a bounded number of recently
+ * used paths; the path template itself is only parsed when first required, so that {@link HttpPathValidator} can report
+ * syntax errors before template parsing.
+ */
+@Value.Immutable
+@ConjureImmutablesStyle
+public abstract class ParsedHttpPath {
+
+    private static final LoadingCache<String, ParsedHttpPath> CACHE =
+            CacheBuilder.newBuilder().maximumSize(10_000).build(CacheLoader.from(ImmutableParsedHttpPath::of));
+
+    // The ? is for reluctant matching, i.e. matching as few characters as possible.
+    private static final Pattern PATHVAR_PATTERN = Pattern.compile(Pattern.quote("{") + ".+?" + Pattern.quote("}"));
+
+    @Value.Parameter
+    public abstract String path();
+
+    /** The path as parsed by syntactic-paths. */
+    @Value.Lazy
+    public Path syntacticPath() {
+        return Paths.get(path());
+    }
+
+    /** The names of all path template variables in order of appearance, including duplicates. */
+    @Value.Lazy
+    public List<String> templateVariables() {
+        return template().variables();
+    }
+
+    /** The distinct path template variables, i.e. the path arguments of the endpoint. */
+    @Value.Lazy
+    public Set<ArgumentName> pathArgs() {
+        return templateVariables().stream().map(ArgumentName::of).collect(ImmutableSet.toImmutableSet());
+    }
+
+    /** The segments of the path template, with each variable reduced to <code>{name}</code>. */
+    @Value.Lazy
+    public List<String> templateSegments() {
+        return Splitter.on('/').splitToList(template().normalizedTemplate());
+    }
+
+    /** The regular expression of the given variable, or empty if it matches any single path segment. */
+    public Optional<Pattern> variablePattern(String variable) {
+        return template().pattern(variable);
+    }
+
+    /**
+     * The path with all variables replaced by <code>{arg}</code>, since paths cannot differ only in the name or
+     * regular expression of a path variable.
+     */
+    @Value.Lazy
+    public String normalizedPath() {
+        return PATHVAR_PATTERN.matcher(path()).replaceAll("{arg}");
+    }
+
+    @Value.Lazy
+    PathTemplate template() {
+        return PathTemplate.parse(path());
+    }
+
+    public static ParsedHttpPath of(HttpPath httpPath) {
+        return of(httpPath.get());
+    }
+
+    public static ParsedHttpPath of(String httpPath) {
+        return CACHE.getUnchecked(httpPath);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * A parsed path template of the form accepted by conjure, e.g. <code>/abc/{foo}/{bar:.+}</code>. Variables are
+ * delimited by braces and may specify a regular expression after a colon; braces within the regular expression must
+ * be balanced.
+ */
+final class PathTemplate {
+    private static final Pattern VARIABLE_NAME_PATTERN = Pattern.compile("[a-zA-Z0-9_][a-zA-Z0-9_.-]*");
+
+    private final ImmutableList<String> variables;
+    private final ImmutableMap<String, Pattern> patterns;
+    private final String normalizedTemplate;
+
+    private PathTemplate(
+            ImmutableList<String> variables, ImmutableMap<String, Pattern> patterns, String normalizedTemplate) {
+        this.variables = variables;
+        this.patterns = patterns;
+        this.normalizedTemplate = normalizedTemplate;
+    }
+
+    static PathTemplate parse(String template) {
+        ImmutableList.Builder<String> variables = ImmutableList.builder();
+        Map<String, Pattern> patterns = new HashMap<>();
+        StringBuilder normalized = new StringBuilder(template.length());
+
+        int pos = 0;
+        while (pos < template.length()) {
+            char ch = template.charAt(pos);
+            if (ch == '}') {
+                throw new IllegalArgumentException(
+                        String.format("Unmatched '}' at index %d of path template %s", pos, template));
+            }
+            if (ch != '{') {
+                normalized.append(ch);
+                pos++;
+                continue;
+            }
+
+            int end = findVariableEnd(template, pos);
+            String variable = template.substring(pos + 1, end);
+            int colon = variable.indexOf(':');
+            String name = (colon < 0 ? variable : variable.substring(0, colon)).trim();
+            if (!VARIABLE_NAME_PATTERN.matcher(name).matches()) {
+                throw new IllegalArgumentException(String.format(
+                        "Illegal variable name '%s' at index %d of path template %s", name, pos, template));
+            }
+            if (colon >= 0) {
+                patterns.put(name, Pattern.compile(variable.substring(colon + 1).trim()));
+            } else {
+                // as with duplicate keys in a map, the last declaration of a variable determines its pattern
+                patterns.remove(name);
+            }
+
+            variables.add(name);
+            normalized.append('{').append(name).append('}');
+            pos = end + 1;
+        }
+        return new PathTemplate(variables.build(), ImmutableMap.copyOf(patterns), normalized.toString());
+    }
+
+    /** Returns the index of the brace closing the variable opened at {@code start}, allowing nested braces. */
+    private static int findVariableEnd(String template, int start) {
+        int depth = 0;
+        for (int pos = start; pos < template.length(); pos++) {
+            char ch = template.charAt(pos);
+            if (ch == '{') {
+                depth++;
+            } else if (ch == '}' && --depth == 0) {
+                return pos;
+            }
+        }
+        throw new IllegalArgumentException(
+                String.format("Unmatched '{' at index %d of path template %s", start, template));
+    }
+
+    /** The names of all variables in order of appearance, including duplicates. */
+    List<String> variables() {
+        return variables;
+    }
+
+    /** The regular expression of the given variable, or empty if it matches any single path segment. */
+    Optional<Pattern> pattern(String variable) {
+        return Optional.ofNullable(patterns.get(variable));
+    }
+
+    /** The template with each variable reduced to <code>{name}</code>. */
+    String normalizedTemplate() {
+        return normalizedTemplate;
+    }
+}
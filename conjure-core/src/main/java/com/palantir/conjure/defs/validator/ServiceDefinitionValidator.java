@@ -21,7 +21,6 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.palantir.conjure.spec.ServiceDefinition;
 import java.util.Collection;
-import java.util.regex.Pattern;
 
 @com.google.errorprone.annotations.Immutable
 public enum ServiceDefinitionValidator implements ConjureValidator<ServiceDefinition> {
@@ -45,21 +44,17 @@ public enum ServiceDefinitionValidator implements ConjureValidator<ServiceDefini
         validator.validate(definition);
     }
 
-    // The ? is for reluctant matching, i.e. matching as few characters as possible.
-    private static final Pattern PATHVAR_PATTERN = Pattern.compile(Pattern.quote("{") + ".+?" + Pattern.quote("}"));
-
     @com.google.errorprone.annotations.Immutable
     private static final class UniquePathMethodsValidator implements ConjureValidator<ServiceDefinition> {
         @Override
         public void validate(ServiceDefinition definition) {
             Multimap<String, String> pathToEndpoints = ArrayListMultimap.create();
             definition.getEndpoints().forEach(entry -> {
-                String methodPath =
-                        entry.getHttpMethod().get() + " " + entry.getHttpPath().get();
                 // normalize all path parameter variables and regular expressions because all path args are treated
                 // as identical for comparisons (paths cannot differ only in the name/regular expression of a path
                 // variable)
-                methodPath = PATHVAR_PATTERN.matcher(methodPath).replaceAll("{arg}");
+                String methodPath = entry.getHttpMethod().get() + " "
+                        + ParsedHttpPath.of(entry.getHttpPath()).normalizedPath();
                 pathToEndpoints.put(methodPath, entry.getEndpointName().get());
             });
 
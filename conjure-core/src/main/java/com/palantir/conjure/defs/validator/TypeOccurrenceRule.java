@@ -0,0 +1,31 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.defs.validator;
+
+import com.palantir.conjure.spec.Type;
+
+/**
+ * A validation applied to every type occurring in a definition: alias targets, object and union fields, error
+ * arguments, and endpoint arguments and return types. Rules are evaluated by {@link TypeOccurrenceValidator}, which
+ * walks a definition once for any number of rules.
+ */
+@com.google.errorprone.annotations.Immutable
+interface TypeOccurrenceRule {
+    /** Description of a violation of this rule, e.g. "Illegal map key", to which the offending location is appended. */
+    String violation();
+
+    boolean isIllegal(Type type, DefinitionTypes types);
+}
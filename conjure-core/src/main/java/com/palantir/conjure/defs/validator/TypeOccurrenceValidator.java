@@ -0,0 +1,141 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.defs.validator;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.ConjureDefinitionIndex;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ArgumentDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EnumDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.UnionDefinition;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Evaluates {@link TypeOccurrenceRule rules} in a single walk over a definition, sharing one {@link DefinitionTypes}
+ * index between them.
+ *
+ * <p>The first violation of each rule is recorded and the walk stops checking that rule. Once the walk completes, the
+ * violation of the earliest rule in the given list is thrown, so the reported error doesn't depend on how many rules
+ * are evaluated together.
+ */
+final class TypeOccurrenceValidator {
+    private final List<TypeOccurrenceRule> rules;
+    private final DefinitionTypes types;
+    private final String[] violations;
+
+    private TypeOccurrenceValidator(List<TypeOccurrenceRule> rules, DefinitionTypes types) {
+        this.rules = rules;
+        this.types = types;
+        this.violations = new String[rules.size()];
+    }
+
+    static void validate(ConjureDefinition definition, List<TypeOccurrenceRule> rules) {
+        validate(definition, rules, DefinitionTypes.of(ConjureDefinitionIndex.of(definition)));
+    }
+
+    static void validate(ConjureDefinition definition, List<TypeOccurrenceRule> rules, DefinitionTypes types) {
+        TypeOccurrenceValidator validator = new TypeOccurrenceValidator(rules, types);
+        definition.getTypes().forEach(validator::visitTypeDefinition);
+        definition.getErrors().forEach(validator::visitErrorDefinition);
+        definition.getServices().forEach(validator::visitServiceDefinition);
+        for (String violation : validator.violations) {
+            if (violation != null) {
+                throw new IllegalStateException(violation);
+            }
+        }
+    }
+
+    private void visitTypeDefinition(TypeDefinition typeDef) {
+        typeDef.accept(new TypeDefinition.Visitor<Void>() {
+            @Override
+            public Void visitAlias(AliasDefinition value) {
+                check(ImmutableList.of(value.getAlias()), () -> "alias " + value.getTypeName().getName());
+                return null;
+            }
+
+            @Override
+            public Void visitObject(ObjectDefinition value) {
+                check(fieldTypes(value.getFields()), () -> "object " + value.getTypeName().getName());
+                return null;
+            }
+
+            @Override
+            public Void visitUnion(UnionDefinition value) {
+                check(fieldTypes(value.getUnion()), () -> "union " + value.getTypeName().getName());
+                return null;
+            }
+
+            @Override
+            public Void visitEnum(EnumDefinition _value) {
+                return null;
+            }
+
+            @Override
+            public Void visitUnknown(String _unknownType) {
+                return null;
+            }
+        });
+    }
+
+    private void visitErrorDefinition(ErrorDefinition errorDef) {
+        check(
+                fieldTypes(Stream.concat(errorDef.getSafeArgs().stream(), errorDef.getUnsafeArgs().stream())
+                        .collect(Collectors.toList())),
+                () -> "one of arguments of error " + errorDef.getErrorName().getName());
+    }
+
+    private void visitServiceDefinition(ServiceDefinition serviceDef) {
+        for (EndpointDefinition endpoint : serviceDef.getEndpoints()) {
+            check(
+                    endpoint.getArgs().stream().map(ArgumentDefinition::getType).collect(Collectors.toList()),
+                    () -> "one of the arguments of endpoint " + endpoint.getEndpointName().get());
+            endpoint.getReturns()
+                    .ifPresent(returnType -> check(
+                            ImmutableList.of(returnType),
+                            () -> "return type of endpoint " + endpoint.getEndpointName().get()));
+        }
+    }
+
+    private void check(List<Type> occurrences, Supplier<String> location) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (violations[i] != null) {
+                continue;
+            }
+            TypeOccurrenceRule rule = rules.get(i);
+            for (Type type : occurrences) {
+                if (rule.isIllegal(type, types)) {
+                    violations[i] = rule.violation() + " found in " + location.get();
+                    break;
+                }
+            }
+        }
+    }
+
+    private static List<Type> fieldTypes(List<FieldDefinition> fields) {
+        return fields.stream().map(FieldDefinition::getType).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.palantir.conjure.ConjureDefinitionIndex;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import com.palantir.conjure.visitor.TypeVisitor;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns a dense int id to every type declared by a {@link ConjureDefinition}, in declaration order, and stores the
+ * direct reference graph between them as adjacency arrays. Graph validations run on ids, so each {@link TypeName} is
+ * hashed once per compilation rather than once per edge.
+ *
+ * <p>{@link ConjureDefinitionValidator#validateAll} builds one registry per definition and shares it between
+ * validators. If a name is declared more than once, the first declaration wins; duplicates are reported separately by
+ * the unique names validation.
+ */
+final class TypeRegistry {
+    private static final int UNKNOWN = -1;
+
+    private static final int[] NO_REFERENCES = new int[0];
+
+    private final ConjureDefinitionIndex index;
+    private final TypeName[] names;
+    private final int[][] directReferences;
+
+    private TypeRegistry(ConjureDefinitionIndex index) {
+        this.index = index;
+        int size = index.types().size();
+        names = index.types().keySet().toArray(new TypeName[0]);
+
+        // ids by name are only needed while resolving references, so the map isn't kept
+        Map<TypeName, Integer> ids = new HashMap<>(size * 2);
+        for (int id = 0; id < size; id++) {
+            ids.put(names[id], id);
+        }
+        directReferences = new int[size][];
+        for (int id = 0; id < size; id++) {
+            directReferences[id] = computeDirectReferences(index.types().get(names[id]), ids);
+        }
+    }
+
+    static TypeRegistry of(ConjureDefinitionIndex index) {
+        return new TypeRegistry(index);
+    }
+
+    /** The number of distinct declared types; ids range from {@code 0} (inclusive) to this (exclusive). */
+    int size() {
+        return names.length;
+    }
+
+    TypeName name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Ids of the declared types referenced directly by the given type, i.e. by the fields of an object or the target
+     * of an alias, and not wrapped in an optional, collection or union. The returned array must not be modified.
+     */
+    int[] directReferences(int id) {
+        return directReferences[id];
+    }
+
+    /** The lookup index over the definition from which this registry was built. */
+    ConjureDefinitionIndex index() {
+        return index;
+    }
+
+    private static int[] computeDirectReferences(TypeDefinition typeDef, Map<TypeName, Integer> ids) {
+        if (typeDef.accept(TypeDefinitionVisitor.IS_OBJECT)) {
+            ObjectDefinition objectDef = typeDef.accept(TypeDefinitionVisitor.OBJECT);
+            int[] references = new int[objectDef.getFields().size()];
+            int count = 0;
+            for (FieldDefinition field : objectDef.getFields()) {
+                int reference = referencedId(field.getType(), ids);
+                if (reference != UNKNOWN) {
+                    references[count++] = reference;
+                }
+            }
+            return Arrays.copyOf(references, count);
+        } else if (typeDef.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+            AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
+            int reference = referencedId(aliasDef.getAlias(), ids);
+            return reference != UNKNOWN ? new int[] {reference} : NO_REFERENCES;
+        }
+        return NO_REFERENCES;
+    }
+
+    private static int referencedId(Type type, Map<TypeName, Integer> ids) {
+        return type.accept(TypeVisitor.IS_REFERENCE)
+                ? ids.getOrDefault(type.accept(TypeVisitor.REFERENCE), UNKNOWN)
+                : UNKNOWN;
+    }
+}
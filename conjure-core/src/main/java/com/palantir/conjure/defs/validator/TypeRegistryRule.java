@@ -0,0 +1,26 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.defs.validator;
+package com.palantir.conjure.defs.validator;
+
+/**
+ * A validation of the reference graph between declared types. {@link ConjureDefinitionValidator#validateAll} runs it
+ * against the {@link TypeRegistry} shared by all validators, rather than building one per rule.
+ */
+@com.google.errorprone.annotations.Immutable
+interface TypeRegistryRule {
+    void validate(TypeRegistry registry);
+}
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import com.palantir.conjure.parser.types.TypesDefinition;
 import com.palantir.conjure.parser.types.names.Namespace;
 import com.palantir.conjure.parser.types.reference.ConjureImports;
@@ -31,11 +32,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public final class ConjureParser {
@@ -72,6 +75,15 @@ public final class ConjureParser {
         return files.stream().map(file -> parseAnnotated(parser, file)).collect(Collectors.toList());
     }
 
+    /**
+     * Parses the given files on up to {@code parallelism} threads. Imports shared between files are read and
+     * deserialized only once; the returned list is in the same order as {@code files}.
+     */
+    public static List<AnnotatedConjureSourceFile> parseAnnotated(Collection<File> files, int parallelism) {
+        RecursiveParser parser = new RecursiveParser();
+        return ParallelTasks.map(files, file -> parseAnnotated(parser, file), parallelism, "conjure-parser-%d");
+    }
+
     private static AnnotatedConjureSourceFile parseAnnotated(RecursiveParser parser, File file) {
         return AnnotatedConjureSourceFile.builder()
                 .conjureSourceFile(parser.parse(file))
@@ -79,37 +91,47 @@ public final class ConjureParser {
                 .build();
     }
 
+    /**
+     * Parses conjure files and their imports. A single instance may be shared between threads: each top-level
+     * {@link #parse(File)} call tracks its own depth-first path for cycle detection, while parsed files are shared
+     * through concurrent caches.
+     */
     private static final class RecursiveParser {
-        private final Map<String, ConjureSourceFile> cache;
-        private final Set<String> currentDepthFirstPath;
+        private final ConcurrentMap<String, ConjureSourceFile> cache;
+        private final ConcurrentMap<String, Supplier<ConjureSourceFile>> definitions;
 
         private RecursiveParser() {
-            this.cache = new HashMap<>();
-            this.currentDepthFirstPath = new LinkedHashSet<>(); // maintain order so we can print the cycle
+            this.cache = new ConcurrentHashMap<>();
+            this.definitions = new ConcurrentHashMap<>();
         }
 
         ConjureSourceFile parse(File file) {
-            // HashMap.computeIfAbsent does not work with recursion; the size of the map gets corrupted,
-            // and if the map gets resized during the recursion, some of the new nodes can be put in wrong
-            // buckets. Therefore don't use computeIfAbsent in parse/parseInternal
-            // See https://bugs.java.com/view_bug.do?bug_id=JDK-8071667
-            ConjureSourceFile result = cache.get(file.getAbsolutePath());
+            return parse(file, new LinkedHashSet<>()); // maintain order so we can print the cycle
+        }
+
+        private ConjureSourceFile parse(File file, Set<String> currentDepthFirstPath) {
+            // ConcurrentHashMap.computeIfAbsent does not support recursive updates (and HashMap.computeIfAbsent
+            // corrupts the map when used recursively, see https://bugs.java.com/view_bug.do?bug_id=JDK-8071667).
+            // Therefore don't use computeIfAbsent in parse/parseInternal
+            String path = file.getAbsolutePath();
+            ConjureSourceFile result = cache.get(path);
             if (result != null) {
                 return result;
             }
 
-            if (!currentDepthFirstPath.add(file.getAbsolutePath())) {
+            if (!currentDepthFirstPath.add(path)) {
                 String cycle = currentDepthFirstPath.stream().reduce("", (left, right) -> left + " -> " + right)
-                        + " -> " + file.getAbsolutePath();
+                        + " -> " + path;
                 throw new CyclicImportException(cycle);
             }
 
-            result = parseInternal(file);
-            cache.put(file.getAbsolutePath(), result);
-            return result;
+            result = parseInternal(file, currentDepthFirstPath);
+            currentDepthFirstPath.remove(path);
+            ConjureSourceFile existing = cache.putIfAbsent(path, result);
+            return existing != null ? existing : result;
         }
 
-        private ConjureSourceFile parseInternal(File file) {
+        private ConjureSourceFile parseInternal(File file, Set<String> currentDepthFirstPath) {
             // Note(rfink): The mechanism of parsing the ConjureSourceFile and the imports separately isn't pretty,
             // but it's better than the previous implementation where ConjureImports types were passed around all
             // over the place. Main obstacle to simpler parsing is that Jackson parsers don't have context, i.e., it's
@@ -118,20 +140,32 @@ public final class ConjureParser {
                 throw new ImportNotFoundException(file);
             }
 
-            try {
-                ConjureSourceFile definition = MAPPER.readValue(file, ConjureSourceFile.class);
-                Map<Namespace, ConjureImports> imports = parseImports(
-                        definition.types().conjureImports(), file.toPath().getParent());
-                return ConjureSourceFile.builder()
-                        .from(definition)
-                        .types(TypesDefinition.builder()
-                                .from(definition.types())
-                                .conjureImports(imports)
-                                .build())
-                        .build();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
+            ConjureSourceFile definition = readDefinition(file);
+            Map<Namespace, ConjureImports> imports = parseImports(
+                    definition.types().conjureImports(), file.toPath().getParent(), currentDepthFirstPath);
+            return ConjureSourceFile.builder()
+                    .from(definition)
+                    .types(TypesDefinition.builder()
+                            .from(definition.types())
+                            .conjureImports(imports)
+                            .build())
+                    .build();
+        }
+
+        /**
+         * Deserializes the file without resolving its imports. Concurrent readers of the same file wait for a single
+         * deserialization rather than each reading the file themselves.
+         */
+        private ConjureSourceFile readDefinition(File file) {
+            return definitions
+                    .computeIfAbsent(file.getAbsolutePath(), _path -> Suppliers.memoize(() -> {
+                        try {
+                            return MAPPER.readValue(file, ConjureSourceFile.class);
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }))
+                    .get();
         }
 
         /**
@@ -139,11 +173,11 @@ public final class ConjureParser {
          * {@link ConjureImports#conjure()} imported definitions}.
          */
         private Map<Namespace, ConjureImports> parseImports(
-                Map<Namespace, ConjureImports> declaredImports, Path baseDir) {
+                Map<Namespace, ConjureImports> declaredImports, Path baseDir, Set<String> currentDepthFirstPath) {
             return declaredImports.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> {
                 String importedFile = entry.getValue().file();
                 ConjureSourceFile importedConjure =
-                        parse(baseDir.resolve(importedFile).toFile());
+                        parse(baseDir.resolve(importedFile).toFile(), currentDepthFirstPath);
                 return ConjureImports.withResolvedImports(importedFile, importedConjure);
             }));
         }
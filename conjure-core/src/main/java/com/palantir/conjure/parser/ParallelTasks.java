@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Applies a function to independent inputs on a short-lived thread pool, preserving the order of the inputs. */
+public final class ParallelTasks {
+
+    private ParallelTasks() {}
+
+    /**
+     * Returns {@code function} applied to each of {@code inputs}, in the same order as {@code inputs}, using up to
+     * {@code parallelism} daemon threads named after {@code threadNameFormat}. Exceptions thrown by {@code function}
+     * are rethrown unwrapped, so callers see the same errors as for sequential application.
+     */
+    public static <T, R> List<R> map(
+            Collection<T> inputs, Function<? super T, R> function, int parallelism, String threadNameFormat) {
+        if (parallelism <= 1 || inputs.size() <= 1) {
+            return inputs.stream().map(function).collect(Collectors.toList());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(parallelism, inputs.size()),
+                new ThreadFactoryBuilder()
+                        .setNameFormat(threadNameFormat)
+                        .setDaemon(true)
+                        .build());
+        try {
+            List<Future<R>> futures = inputs.stream()
+                    .map(input -> executor.submit(() -> function.apply(input)))
+                    .collect(Collectors.toList());
+            List<R> results = new ArrayList<>(futures.size());
+            for (Future<R> future : futures) {
+                results.add(getUnchecked(future));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T getUnchecked(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for parallel tasks", e);
+        }
+    }
+}
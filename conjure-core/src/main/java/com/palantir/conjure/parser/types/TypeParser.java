@@ -16,6 +16,8 @@
 
 package com.palantir.conjure.parser.types;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.palantir.conjure.parser.types.builtin.AnyType;
 import com.palantir.conjure.parser.types.builtin.BinaryType;
 import com.palantir.conjure.parser.types.builtin.DateTimeType;
@@ -30,191 +32,135 @@ import com.palantir.conjure.parser.types.reference.LocalReferenceType;
 import com.palantir.parsec.ParseException;
 import com.palantir.parsec.Parser;
 import com.palantir.parsec.ParserState;
-import com.palantir.parsec.Parsers;
 import com.palantir.parsec.StringParserState;
-import com.palantir.parsec.parsers.ExpectationResult;
-import com.palantir.parsec.parsers.KeyValueParser;
-import com.palantir.parsec.parsers.KeyValueParser.KeyValue;
-import com.palantir.parsec.parsers.RawStringParser;
 
+/**
+ * Parses conjure type expressions such as {@code map<string, optional<imports.Foo>>}.
+ *
+ * <p>This is a hand-written recursive descent parser: an expression is a word, optionally followed by a {@code .}
+ * and a second word (for references to imported types), or by type arguments in angle brackets (for collections).
+ * Whitespace is permitted around brackets and commas, but not at the start or end of an expression.
+ *
+ * <p>Type expressions repeat heavily across definitions, so the results of {@link #parse(String)} are cached, up to a
+ * bounded number of distinct expressions.
+ */
 public enum TypeParser implements Parser<ConjureType> {
     INSTANCE;
 
+    private static final Cache<String, ConjureType> CACHE =
+            CacheBuilder.newBuilder().maximumSize(10_000).build();
+
     public ConjureType parse(String input) throws ParseException {
+        ConjureType cached = CACHE.getIfPresent(input);
+        if (cached != null) {
+            return cached;
+        }
+
         ParserState inputParserState = new StringParserState(input);
-        ConjureType resultType = Parsers.eof(typeParser()).parse(inputParserState);
-        if (resultType == null) {
+        ConjureType resultType = parseType(inputParserState, new StringBuilder());
+        if (resultType == null || inputParserState.curr() != -1) {
             throw new ParseException(input, inputParserState);
         }
-        return parse(new StringParserState(input));
+        CACHE.put(input, resultType);
+        return resultType;
     }
 
     @Override
     public ConjureType parse(ParserState input) throws ParseException {
-        return typeParser().parse(input);
-    }
-
-    private Parser<ConjureType> typeParser() {
-        return Parsers.or(
-                MapTypeParser.INSTANCE,
-                ListTypeParser.INSTANCE,
-                SetTypeParser.INSTANCE,
-                OptionalTypeParser.INSTANCE,
-                TypeFromString.of("any", AnyType.of(), AnyType.class),
-                TypeFromString.of("binary", BinaryType.of(), BinaryType.class),
-                TypeFromString.of("datetime", DateTimeType.of(), DateTimeType.class),
-                ForeignReferenceTypeParser.INSTANCE,
-                TypeReferenceParser.INSTANCE);
+        return parseType(input, new StringBuilder());
     }
 
-    private enum TypeReferenceParser implements Parser<LocalReferenceType> {
-        INSTANCE;
-
-        public static final Parser<String> REF_PARSER = new RawStringParser(new RawStringParser.AllowableCharacters() {
-            @Override
-            public boolean isAllowed(char character) {
-                return Character.isJavaIdentifierPart(character);
-            }
-
-            @Override
-            public String getDescription() {
-                return "Character is an allowable Java identifier character";
-            }
-        });
-
-        @Override
-        public LocalReferenceType parse(ParserState input) throws ParseException {
-            input.mark();
-            String typeReference = REF_PARSER.parse(input);
-            if (typeReference == null) {
-                input.rewind();
-                return null;
-            }
-            input.release();
-            return LocalReferenceType.of(TypeName.of(typeReference));
+    /**
+     * Parses a single type expression, returning null without consuming any input if the input does not start with
+     * a word. The given builder is scratch space shared by all words of the expression.
+     */
+    private static ConjureType parseType(ParserState input, StringBuilder word) throws ParseException {
+        if (!readWord(input, word)) {
+            return null;
         }
-    }
 
-    // TODO(qchen): Change to ExternalType?
-    private enum ForeignReferenceTypeParser implements Parser<ForeignReferenceType> {
-        INSTANCE;
-
-        public static final Parser<String> NAMESPACE_PARSER =
-                new RawStringParser(new RawStringParser.AllowableCharacters() {
-                    @Override
-                    public boolean isAllowed(char character) {
-                        return ('a' <= character && character <= 'z') || ('A' <= character && character <= 'Z');
-                    }
-
-                    @Override
-                    public String getDescription() {
-                        return "Character is one of [a-zA-Z]";
-                    }
-                });
-
-        @Override
-        public ForeignReferenceType parse(ParserState input) throws ParseException {
-            String namespace = NAMESPACE_PARSER.parse(input);
-            if (Parsers.nullOrUnexpected(Parsers.expect(".").parse(input))) {
-                return null;
-            }
-            String ref = TypeReferenceParser.REF_PARSER.parse(input);
-            return ForeignReferenceType.of(Namespace.of(namespace), TypeName.of(ref));
+        if ("map".contentEquals(word)) {
+            expect(input, '<');
+            ConjureType keyType = parseTypeArgument(input, word);
+            expect(input, ',');
+            ConjureType valueType = parseTypeArgument(input, word);
+            expect(input, '>');
+            return MapType.of(keyType, valueType);
+        } else if ("list".contentEquals(word)) {
+            return ListType.of(parseSingleTypeArgument(input, word));
+        } else if ("set".contentEquals(word)) {
+            return SetType.of(parseSingleTypeArgument(input, word));
+        } else if ("optional".contentEquals(word)) {
+            return OptionalType.of(parseSingleTypeArgument(input, word));
+        } else if ("any".contentEquals(word)) {
+            return AnyType.of();
+        } else if ("binary".contentEquals(word)) {
+            return BinaryType.of();
+        } else if ("datetime".contentEquals(word)) {
+            return DateTimeType.of();
         }
-    }
-
-    private enum ListTypeParser implements Parser<ListType> {
-        INSTANCE;
 
-        @Override
-        public ListType parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect("list").parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
+        if (input.curr() == '.' && isNamespace(word)) {
+            // TODO(qchen): Change to ExternalType?
+            Namespace namespace = Namespace.of(word.toString());
+            input.next();
+            if (!readWord(input, word)) {
+                throw new ParseException("Expected the name of an imported type", input);
             }
-
-            ConjureType itemType =
-                    Parsers.liberalBetween("<", TypeParser.INSTANCE, ">").parse(input);
-            return ListType.of(itemType);
+            return ForeignReferenceType.of(namespace, TypeName.of(word.toString()));
         }
+        return LocalReferenceType.of(TypeName.of(word.toString()));
     }
 
-    private enum SetTypeParser implements Parser<SetType> {
-        INSTANCE;
-
-        @Override
-        public SetType parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect("set").parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
-            }
+    private static ConjureType parseSingleTypeArgument(ParserState input, StringBuilder word) throws ParseException {
+        expect(input, '<');
+        ConjureType itemType = parseTypeArgument(input, word);
+        expect(input, '>');
+        return itemType;
+    }
 
-            ConjureType itemType =
-                    Parsers.liberalBetween("<", TypeParser.INSTANCE, ">").parse(input);
-            return SetType.of(itemType);
+    private static ConjureType parseTypeArgument(ParserState input, StringBuilder word) throws ParseException {
+        skipWhitespace(input);
+        ConjureType type = parseType(input, word);
+        if (type == null) {
+            throw new ParseException("Expected a type", input);
         }
+        return type;
     }
 
-    private enum OptionalTypeParser implements Parser<OptionalType> {
-        INSTANCE;
-
-        @Override
-        public OptionalType parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect("optional").parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
-            }
-
-            ConjureType itemType =
-                    Parsers.liberalBetween("<", TypeParser.INSTANCE, ">").parse(input);
-            return OptionalType.of(itemType);
+    private static void expect(ParserState input, char expected) throws ParseException {
+        skipWhitespace(input);
+        if (input.curr() != expected) {
+            throw new ParseException("Expected '" + expected + "'", input);
         }
+        input.next();
     }
 
-    private enum MapTypeParser implements Parser<MapType> {
-        INSTANCE;
-
-        @Override
-        public MapType parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect("map").parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
-            }
-
-            Parser<KeyValue<ConjureType, ConjureType>> kv = Parsers.liberalBetween(
-                    "<",
-                    new KeyValueParser<>(
-                            Parsers.whitespace(TypeParser.INSTANCE),
-                            Parsers.whitespace(Parsers.expect(",")),
-                            Parsers.whitespace(TypeParser.INSTANCE)),
-                    ">");
-
-            KeyValue<ConjureType, ConjureType> types = kv.parse(input);
-            return MapType.of(types.getKey(), types.getValue());
+    private static void skipWhitespace(ParserState input) {
+        int curr = input.curr();
+        while (curr != -1 && Character.isWhitespace((char) curr)) {
+            curr = input.next();
         }
     }
 
-    private static final class TypeFromString<T> implements Parser<T> {
-        private final String type;
-        private final T instance;
-
-        TypeFromString(String type, T instance) {
-            this.type = type;
-            this.instance = instance;
+    /** Replaces the contents of {@code word} by the next run of identifier characters; false if there are none. */
+    private static boolean readWord(ParserState input, StringBuilder word) {
+        word.setLength(0);
+        int curr = input.curr();
+        while (curr != -1 && Character.isJavaIdentifierPart((char) curr)) {
+            word.append((char) curr);
+            curr = input.next();
         }
+        return word.length() > 0;
+    }
 
-        @Override
-        public T parse(ParserState input) throws ParseException {
-            ExpectationResult result = Parsers.expect(type).parse(input);
-            if (Parsers.nullOrUnexpected(result)) {
-                return null;
+    private static boolean isNamespace(CharSequence word) {
+        for (int i = 0; i < word.length(); i++) {
+            char character = word.charAt(i);
+            if (!('a' <= character && character <= 'z') && !('A' <= character && character <= 'Z')) {
+                return false;
             }
-
-            return instance;
-        }
-
-        public static <T> TypeFromString<T> of(String type, T instance, Class<T> _metric) {
-            return new TypeFromString<>(type, instance);
         }
+        return true;
     }
 }
@@ -16,23 +16,65 @@
 
 package com.palantir.parsec;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 
-public final class FileParserState implements ParserState {
+/**
+ * A {@link ParserState} which decodes a UTF-8 file incrementally. Only the characters from the oldest outstanding mark
+ * (or the current position, if there are no marks) onwards are retained, so memory use is bounded by the longest
+ * marked region rather than the size of the file. Lines are numbered from 1; columns from 0.
+ *
+ * <p>The file is kept open until the state is closed, and is read sequentially in chunks. The file must not change
+ * while it is being parsed; a change in its size is detected once the end of the file is reached.
+ */
+public final class FileParserState implements ParserState, Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private long filePosition = 0;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean endOfInput = false;
+
+    // window[0] holds the character at absolute position windowStart
+    private char[] window = new char[BUFFER_SIZE];
+    private int windowStart = 0;
+    private int windowLength = 0;
 
-    private final StringParserState delegate;
+    private int current = 0;
+    private int line = 1;
+    private int column = 0;
+
+    // marked positions, with the line and column at each position so that they can be restored on rewind
+    private int[] markPositions = new int[8];
+    private int[] markLines = new int[8];
+    private int[] markColumns = new int[8];
+    private int markCount = 0;
 
     public FileParserState(File in) {
+        if (!in.isFile()) {
+            throw new IllegalArgumentException("Cannot find file '" + in.getAbsolutePath() + "'");
+        }
+        this.file = in;
         try {
-            StringBuilder sb = new StringBuilder(new String(Files.readAllBytes(in.toPath()), StandardCharsets.UTF_8));
-
-            delegate = new StringParserState(sb);
-        } catch (FileNotFoundException e) {
-            throw new IllegalArgumentException("Cannot find file '" + in.getAbsolutePath() + "'", e);
+            this.channel = FileChannel.open(in.toPath(), StandardOpenOption.READ);
+            this.fileSize = channel.size();
         } catch (IOException e) {
             throw new IllegalArgumentException("Error reading file '" + in.getAbsolutePath() + "'", e);
         }
@@ -40,36 +82,136 @@ public final class FileParserState implements ParserState {
 
     @Override
     public int curr() {
-        return delegate.curr();
+        if (current - windowStart >= windowLength && !fill()) {
+            return -1;
+        }
+        return window[current - windowStart];
     }
 
     @Override
     public int next() {
-        return delegate.next();
+        int curr = curr();
+        if (curr == -1) {
+            // as for StringParserState, never move more than one past the end of the input
+            return -1;
+        }
+        if (curr == '\n') {
+            line++;
+            column = 0;
+        } else {
+            column++;
+        }
+        current++;
+        return curr();
     }
 
     @Override
     public void mark() {
-        delegate.mark();
+        if (markCount == markPositions.length) {
+            markPositions = Arrays.copyOf(markPositions, markCount * 2);
+            markLines = Arrays.copyOf(markLines, markCount * 2);
+            markColumns = Arrays.copyOf(markColumns, markCount * 2);
+        }
+        markPositions[markCount] = current;
+        markLines[markCount] = line;
+        markColumns[markCount] = column;
+        markCount++;
     }
 
     @Override
     public void release() {
-        delegate.release();
+        popMark();
     }
 
     @Override
     public void rewind() {
-        delegate.rewind();
+        popMark();
+        current = markPositions[markCount];
+        line = markLines[markCount];
+        column = markColumns[markCount];
+    }
+
+    @Override
+    public CharSequence sinceMark() {
+        if (markCount == 0) {
+            throw new NoSuchElementException();
+        }
+        int start = markPositions[markCount - 1];
+        return CharBuffer.wrap(window, start - windowStart, current - start);
     }
 
     @Override
     public int getLine() {
-        return delegate.getLine();
+        return line;
     }
 
     @Override
     public int getCharPosition() {
-        return delegate.getLine();
+        return current;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void popMark() {
+        if (markCount == 0) {
+            throw new NoSuchElementException();
+        }
+        markCount--;
+    }
+
+    /**
+     * Decodes more of the file into the window, first discarding characters before both the oldest mark and the
+     * current position. Returns false if the end of the file has been reached.
+     */
+    private boolean fill() {
+        if (endOfInput) {
+            return false;
+        }
+
+        int keepFrom = markCount > 0 ? Math.min(markPositions[0], current) : current;
+        int discard = keepFrom - windowStart;
+        if (discard > 0) {
+            System.arraycopy(window, discard, window, 0, windowLength - discard);
+            windowStart = keepFrom;
+            windowLength -= discard;
+        }
+        if (window.length - windowLength < BUFFER_SIZE) {
+            window = Arrays.copyOf(window, Math.max(window.length * 2, windowLength + BUFFER_SIZE));
+        }
+
+        try {
+            int decoded;
+            do {
+                CharBuffer chars = CharBuffer.wrap(window, windowLength, window.length - windowLength);
+                int read = channel.read(bytes);
+                boolean lastChunk = read == -1;
+                if (!lastChunk) {
+                    filePosition += read;
+                }
+                if (filePosition > fileSize || (lastChunk && filePosition != fileSize)) {
+                    throw new IllegalStateException(
+                            "File '" + file.getAbsolutePath() + "' changed while it was being parsed");
+                }
+                bytes.flip();
+                decoder.decode(bytes, chars, lastChunk);
+                if (lastChunk) {
+                    decoder.flush(chars);
+                    endOfInput = true;
+                }
+                bytes.compact();
+                decoded = chars.position() - windowLength;
+                windowLength = chars.position();
+            } while (decoded == 0 && !endOfInput);
+            return decoded > 0;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Error reading file '" + file.getAbsolutePath() + "'", e);
+        }
     }
 }
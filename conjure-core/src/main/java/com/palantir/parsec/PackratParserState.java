@@ -0,0 +1,104 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.parsec;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A {@link ParserState} over a character sequence which additionally records the results of
+ * {@link Parsers#memoize memoized} parsers by input position ("packrat" parsing). When backtracking alternatives
+ * re-run a memoized parser at a position it has already been run at, the recorded result is returned and the input
+ * skips straight to where the original run finished, so the total work is linear in the size of the input.
+ *
+ * <p>Instances are not thread-safe and should be used for a single parse.
+ */
+public final class PackratParserState implements ParserState {
+
+    private final StringParserState delegate;
+    private final Map<Parser<?>, Map<Integer, Memo>> memos = new IdentityHashMap<>();
+
+    public PackratParserState(CharSequence str) {
+        this.delegate = new StringParserState(str);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T parseMemoized(Parser<T> parser) throws ParseException {
+        Map<Integer, Memo> parserMemos = memos.computeIfAbsent(parser, _parser -> new HashMap<>());
+        int start = delegate.getCharPosition();
+        Memo memo = parserMemos.get(start);
+        if (memo != null) {
+            delegate.seek(memo.end);
+            return (T) memo.result;
+        }
+
+        T result = parser.parse(this);
+        parserMemos.put(start, new Memo(result, delegate.getCharPosition()));
+        return result;
+    }
+
+    @Override
+    public int curr() {
+        return delegate.curr();
+    }
+
+    @Override
+    public int next() {
+        return delegate.next();
+    }
+
+    @Override
+    public void mark() {
+        delegate.mark();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+
+    @Override
+    public void rewind() {
+        delegate.rewind();
+    }
+
+    @Override
+    public CharSequence sinceMark() {
+        return delegate.sinceMark();
+    }
+
+    @Override
+    public int getLine() {
+        return delegate.getLine();
+    }
+
+    @Override
+    public int getCharPosition() {
+        return delegate.getCharPosition();
+    }
+
+    private static final class Memo {
+        private final Object result;
+        private final int end;
+
+        private Memo(Object result, int end) {
+            this.result = result;
+            this.end = end;
+        }
+    }
+}
@@ -47,6 +47,26 @@ public interface ParserState {
      */
     void rewind();
 
+    /**
+     * Characters consumed since the last mark, which is left in place. The returned sequence is only valid until the
+     * state is next modified; callers that retain it should convert it to a {@link String}.
+     *
+     * <p>The default implementation rewinds to the mark and consumes the characters again, relying on
+     * {@link #getCharPosition()} advancing by one with each character. Implementations should override it with a view
+     * of their buffered input.
+     */
+    default CharSequence sinceMark() {
+        int end = getCharPosition();
+        rewind();
+        mark();
+        StringBuilder consumed = new StringBuilder();
+        while (getCharPosition() < end && curr() != -1) {
+            consumed.append((char) curr());
+            next();
+        }
+        return consumed;
+    }
+
     int getLine();
 
     int getCharPosition();
@@ -20,6 +20,8 @@ import com.palantir.parsec.parsers.BetweenParser;
 import com.palantir.parsec.parsers.ExpectantParser;
 import com.palantir.parsec.parsers.ExpectationResult;
 import com.palantir.parsec.parsers.RawStringParser;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class Parsers {
 
@@ -115,15 +117,18 @@ public final class Parsers {
      */
     @SafeVarargs
     public static <T> Parser<T> or(final Parser<? extends T> firstOption, final Parser<? extends T>... otherOptions) {
+        // wrap each option once, rather than on every parse
+        List<Parser<? extends T>> options = new ArrayList<>(otherOptions.length + 1);
+        options.add(gingerly(firstOption));
+        for (Parser<? extends T> nextOption : otherOptions) {
+            options.add(gingerly(nextOption));
+        }
         return new Parser<T>() {
             @Override
             public T parse(ParserState input) throws ParseException {
-                T result = gingerly(firstOption).parse(input);
-                if (result != null) {
-                    return result;
-                }
-                for (Parser<? extends T> nextOption : otherOptions) {
-                    result = gingerly(nextOption).parse(input);
+                T result = null;
+                for (Parser<? extends T> option : options) {
+                    result = option.parse(input);
                     if (result != null) {
                         return result;
                     }
@@ -133,6 +138,34 @@ public final class Parsers {
         };
     }
 
+    /**
+     * Memoizes the results of {@code parser} by input position when parsing a {@link PackratParserState}, so that
+     * alternatives which backtrack over the same input run the parser at most once per position. For any other
+     * {@link ParserState}, the returned parser behaves exactly like {@code parser}.
+     *
+     * <p>{@code parser} must be free of side effects other than consuming input, and must not be left-recursive.
+     *
+     * @param <T> the type the target parser returns
+     * @param parser the target parser to run
+     * @return the specified parser
+     */
+    public static <T> Parser<T> memoize(Parser<T> parser) {
+        return new Parser<T>() {
+            @Override
+            public T parse(ParserState input) throws ParseException {
+                if (input instanceof PackratParserState) {
+                    return ((PackratParserState) input).parseMemoized(parser);
+                }
+                return parser.parse(input);
+            }
+
+            @Override
+            public String toString() {
+                return "memoize(" + parser + ")";
+            }
+        };
+    }
+
     public static ExpectantParser expect(String expectation) {
         return new ExpectantParser(expectation);
     }
@@ -16,13 +16,16 @@
 
 package com.palantir.parsec;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 
 public final class StringParserState implements ParserState {
 
     private final CharSequence seq;
-    private final Deque<Integer> marks = new ArrayDeque<>();
+    // stack of marked positions, held as primitives to avoid boxing on every mark
+    private int[] marks = new int[8];
+    private int markCount = 0;
     private int current = 0;
 
     public StringParserState(CharSequence str) {
@@ -44,17 +47,41 @@ public final class StringParserState implements ParserState {
 
     @Override
     public void mark() {
-        marks.push(current);
+        if (markCount == marks.length) {
+            marks = Arrays.copyOf(marks, markCount * 2);
+        }
+        marks[markCount++] = current;
     }
 
     @Override
     public void rewind() {
-        current = marks.pop();
+        current = popMark();
     }
 
     @Override
     public void release() {
-        marks.pop();
+        popMark();
+    }
+
+    @Override
+    public CharSequence sinceMark() {
+        if (markCount == 0) {
+            throw new NoSuchElementException();
+        }
+        // a view rather than subSequence, which copies when the input is a String
+        return CharBuffer.wrap(seq, marks[markCount - 1], current);
+    }
+
+    /** Moves directly to the given position, which must not exceed the length of the input. */
+    void seek(int position) {
+        current = position;
+    }
+
+    private int popMark() {
+        if (markCount == 0) {
+            throw new NoSuchElementException();
+        }
+        return marks[--markCount];
     }
 
     @Override
@@ -42,14 +42,24 @@ public final class RawStringParser implements Parser<String> {
 
     @Override
     public String parse(ParserState input) {
-        StringBuilder sb = new StringBuilder();
+        CharSequence token = parseToken(input);
+        return token.length() > 0 ? token.toString() : null;
+    }
+
+    /**
+     * Consumes the longest sequence of allowed characters and returns it as a view of the input, without
+     * materializing a {@link String}. The view is empty if the current character is not allowed.
+     */
+    public CharSequence parseToken(ParserState input) {
+        input.mark();
         int curr = input.curr();
         // not at end of the file and character is explicitly allowed
         while (curr != -1 && condition.isAllowed((char) curr)) {
-            sb.append((char) curr);
             curr = input.next();
         }
-        return sb.length() > 0 ? sb.toString() : null;
+        CharSequence token = input.sinceMark();
+        input.release();
+        return token;
     }
 
     @Override
@@ -19,9 +19,11 @@ package com.palantir.conjure.defs;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.parser.AnnotatedConjureSourceFile;
 import com.palantir.conjure.parser.ConjureParser;
 import com.palantir.conjure.spec.ConjureDefinition;
 import java.io.File;
+import java.util.List;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -34,6 +36,14 @@ public class ConjureDefTest {
         assertThat(conjureDefinition.getTypes()).hasSize(1);
     }
 
+    @Test
+    public void parallelConversionMatchesSequential() {
+        List<AnnotatedConjureSourceFile> files = ConjureParser.parseAnnotated(ImmutableList.of(
+                new File("src/test/resources/example-conjure-imports.yml"),
+                new File("src/test/resources/example-deprecation.yml")));
+        assertThat(ConjureParserUtils.parseConjureDef(files, 2)).isEqualTo(ConjureParserUtils.parseConjureDef(files));
+    }
+
     // Test currently fails as it attempts to parse a TypeScript package name as a java package
     @Test
     @Ignore
@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/** Writes conjure files for tests, including a {@code top.yml} which imports a {@code base.yml} declaring an alias. */
+final class ConjureTestFiles {
+    private ConjureTestFiles() {}
+
+    static void writeBase(File base, String aliasedType) throws IOException {
+        write(
+                base,
+                "types:",
+                "  definitions:",
+                "    default-package: com.palantir.test.base",
+                "    objects:",
+                "      Foo:",
+                "        alias: " + aliasedType);
+    }
+
+    static void writeTop(File top) throws IOException {
+        write(
+                top,
+                "types:",
+                "  conjure-imports:",
+                "    base: base.yml",
+                "  definitions:",
+                "    default-package: com.palantir.test.top",
+                "    objects:",
+                "      Bar:",
+                "        fields:",
+                "          foo: base.Foo");
+    }
+
+    static void write(File file, String... lines) throws IOException {
+        Files.write(file.toPath(), ImmutableList.copyOf(lines), StandardCharsets.UTF_8);
+    }
+}
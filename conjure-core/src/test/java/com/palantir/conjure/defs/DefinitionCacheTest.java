@@ -0,0 +1,119 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DefinitionCacheTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path cacheDirectory;
+    private File base;
+    private File top;
+
+    @Before
+    public void before() throws IOException {
+        cacheDirectory = temporaryFolder.newFolder("cache").toPath();
+        base = temporaryFolder.newFile("base.yml");
+        top = temporaryFolder.newFile("top.yml");
+        ConjureTestFiles.writeBase(base, "string");
+        ConjureTestFiles.writeTop(top);
+    }
+
+    @Test
+    public void testCachedDefinitionsMatchUncachedParse() throws IOException {
+        List<File> files = ImmutableList.of(base, top);
+        ConjureDefinition first = DefinitionCache.create(cacheDirectory).parse(files);
+        // every miss replaces its entry with a new file, so entries which keep their file key were read instead
+        Set<Object> written = fileKeys(cachedDefinitions());
+        setLastUsed(cachedDefinitions(), 0);
+        ConjureDefinition second = DefinitionCache.create(cacheDirectory).parse(files);
+
+        assertThat(first).isEqualTo(Conjure.parse(files));
+        assertThat(second).isEqualTo(first);
+        assertThat(cachedDefinitions()).hasSize(2);
+        assertThat(fileKeys(cachedDefinitions())).isEqualTo(written);
+        for (Path entry : cachedDefinitions()) {
+            assertThat(Files.getLastModifiedTime(entry)).isGreaterThan(FileTime.fromMillis(0));
+        }
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedEntries() throws IOException {
+        List<File> files = ImmutableList.of(base, top);
+        DefinitionCache.create(cacheDirectory, 2).parse(files);
+        List<Path> stale = cachedDefinitions();
+        setLastUsed(stale, 0);
+
+        ConjureTestFiles.writeBase(base, "integer");
+        ConjureDefinition changed = DefinitionCache.create(cacheDirectory, 2).parse(files);
+
+        assertThat(changed).isEqualTo(Conjure.parse(files));
+        assertThat(cachedDefinitions()).hasSize(2).doesNotContainAnyElementsOf(stale);
+    }
+
+    @Test
+    public void testChangedImportInvalidatesImportingFiles() throws IOException {
+        List<File> files = ImmutableList.of(base, top);
+        DefinitionCache.create(cacheDirectory).parse(files);
+
+        ConjureTestFiles.writeBase(base, "integer");
+        ConjureDefinition changed = DefinitionCache.create(cacheDirectory).parse(files);
+
+        assertThat(changed).isEqualTo(Conjure.parse(files));
+        assertThat(cachedDefinitions()).hasSize(4);
+    }
+
+    private static Set<Object> fileKeys(List<Path> entries) throws IOException {
+        Set<Object> fileKeys = new HashSet<>();
+        for (Path entry : entries) {
+            fileKeys.add(Files.readAttributes(entry, BasicFileAttributes.class).fileKey());
+        }
+        return fileKeys;
+    }
+
+    private static void setLastUsed(List<Path> entries, long millis) throws IOException {
+        for (Path entry : entries) {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(millis));
+        }
+    }
+
+    private List<Path> cachedDefinitions() throws IOException {
+        try (Stream<Path> entries = Files.list(cacheDirectory.resolve("definitions-v1"))) {
+            return entries.collect(Collectors.toList());
+        }
+    }
+}
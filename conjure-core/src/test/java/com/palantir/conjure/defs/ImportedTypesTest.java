@@ -0,0 +1,135 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ImportedTypesTest {
+    private static final File FILE = new File("src/test/resources/example-conjure-imports.yml");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void resolvesImportedTypes() {
+        ImmutableMap<TypeName, TypeDefinition> resolved = resolve(new ImportedTypes(), FILE);
+        assertThat(resolved.keySet())
+                .containsExactlyInAnyOrder(
+                        TypeName.of("SimpleObject", "test.api"), TypeName.of("StringAlias", "test.api"));
+    }
+
+    @Test
+    public void sharesConvertedImportsBetweenImporters() {
+        ImportedTypes importedTypes = new ImportedTypes();
+        ImmutableMap<TypeName, TypeDefinition> first = resolve(importedTypes, FILE);
+        ImmutableMap<TypeName, TypeDefinition> second = resolve(importedTypes, FILE);
+        assertThat(second).isSameAs(first);
+    }
+
+    private static ImmutableMap<TypeName, TypeDefinition> resolve(ImportedTypes importedTypes, File file) {
+        ConjureSourceFile parsed = ConjureParser.parse(file);
+        Path baseDir = file.getAbsoluteFile().toPath().getParent();
+        return importedTypes.resolve(baseDir, parsed.types().conjureImports());
+    }
+
+    @Test
+    public void lazyResolutionOnlyConvertsReferencedTypes() throws IOException {
+        File base = temporaryFolder.newFile("base.yml");
+        File top = temporaryFolder.newFile("top.yml");
+        ConjureTestFiles.write(
+                base,
+                "types:",
+                "  definitions:",
+                "    default-package: com.palantir.test.base",
+                "    objects:",
+                "      Used:",
+                "        alias: string",
+                "      Unused:",
+                "        fields:",
+                "          missing: Missing");
+        ConjureTestFiles.write(
+                top,
+                "types:",
+                "  conjure-imports:",
+                "    base: base.yml",
+                "  definitions:",
+                "    default-package: com.palantir.test.top",
+                "    objects:",
+                "      Bar:",
+                "        fields:",
+                "          used: base.Used");
+
+        assertThatThrownBy(() -> Conjure.parse(ImmutableList.of(top)))
+                .hasStackTraceContaining("Unknown LocalReferenceType");
+        ConjureDefinition lazy = Conjure.parse(ImmutableList.of(top), ImportResolution.LAZY);
+        assertThat(lazy.getTypes()).hasSize(1);
+    }
+
+    @Test
+    public void lazyTypesAreSizedWithoutConversion() throws IOException {
+        File base = temporaryFolder.newFile("base.yml");
+        File top = temporaryFolder.newFile("top.yml");
+        ConjureTestFiles.write(
+                base,
+                "types:",
+                "  definitions:",
+                "    default-package: com.palantir.test.base",
+                "    objects:",
+                "      Unused:",
+                "        fields:",
+                "          missing: Missing");
+        ConjureTestFiles.writeTop(top);
+
+        ConjureSourceFile parsed = ConjureParser.parse(top);
+        TypeName unused = TypeName.of("Unused", "com.palantir.test.base");
+        TypeName local = TypeName.of("Bar", "com.palantir.test.top");
+        // converting Unused fails, so none of these may convert it
+        Map<TypeName, TypeDefinition> types = new ImportedTypes(ImportResolution.LAZY, new SymbolTable())
+                .withImports(
+                        ImmutableMap.of(local, TypeDefinition.alias(AliasDefinition.builder()
+                                .typeName(local)
+                                .alias(Type.primitive(PrimitiveType.STRING))
+                                .build())),
+                        top.getAbsoluteFile().toPath().getParent(),
+                        parsed.types().conjureImports());
+
+        assertThat(types.size()).isEqualTo(2);
+        assertThat(types.isEmpty()).isFalse();
+        assertThat(types.containsKey(unused)).isTrue();
+        assertThat(types.keySet()).containsExactlyInAnyOrder(unused, local);
+        assertThatThrownBy(() -> types.get(unused)).hasStackTraceContaining("Unknown LocalReferenceType");
+    }
+}
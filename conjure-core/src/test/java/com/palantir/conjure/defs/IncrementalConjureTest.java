@@ -0,0 +1,94 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncrementalConjureTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File base;
+    private File top;
+    private File other;
+
+    @Before
+    public void before() throws IOException {
+        base = temporaryFolder.newFile("base.yml");
+        top = temporaryFolder.newFile("top.yml");
+        other = temporaryFolder.newFile("other.yml");
+        ConjureTestFiles.writeBase(base, "string");
+        ConjureTestFiles.writeTop(top);
+        ConjureTestFiles.write(
+                other,
+                "types:",
+                "  definitions:",
+                "    default-package: com.palantir.test.other",
+                "    objects:",
+                "      Other:",
+                "        alias: string");
+    }
+
+    @Test
+    public void testCompileMatchesParse() {
+        List<File> files = ImmutableList.of(base, top, other);
+        assertThat(IncrementalConjure.compile(files).definition()).isEqualTo(Conjure.parse(files));
+    }
+
+    @Test
+    public void testRecompileUpdatesFilesImportingChangedFiles() throws IOException {
+        List<File> files = ImmutableList.of(top, other);
+        IncrementalConjure previous = IncrementalConjure.compile(files);
+
+        // base is not an input itself, but it is imported by top
+        ConjureTestFiles.writeBase(base, "integer");
+        IncrementalConjure next = previous.recompile(files, ImmutableList.of(base));
+
+        assertThat(next.definition()).isEqualTo(Conjure.parse(files));
+    }
+
+    @Test
+    public void testRecompileAddsAndRemovesFiles() {
+        IncrementalConjure previous = IncrementalConjure.compile(ImmutableList.of(base, top));
+
+        List<File> files = ImmutableList.of(base, other);
+        IncrementalConjure next = previous.recompile(files, ImmutableList.of(top));
+
+        assertThat(next.definition()).isEqualTo(Conjure.parse(files));
+    }
+
+    @Test
+    public void testRecompileReportsErrorsOfChangedFiles() throws IOException {
+        List<File> files = ImmutableList.of(base, top);
+        IncrementalConjure previous = IncrementalConjure.compile(files);
+
+        ConjureTestFiles.writeBase(base, "missing.Type");
+        assertThatThrownBy(() -> previous.recompile(files, ImmutableList.of(base)))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining(base.getName());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpecInternersTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testEqualTypesAndNamesShareInstances() throws IOException {
+        File file = temporaryFolder.newFile("types.yml");
+        Files.write(
+                file.toPath(),
+                ImmutableList.of(
+                        "types:",
+                        "  definitions:",
+                        "    default-package: com.palantir.test",
+                        "    objects:",
+                        "      Foo:",
+                        "        fields:",
+                        "          first: map<string, list<Bar>>",
+                        "          second: map<string, list<Bar>>",
+                        "        docs: Shared docs.",
+                        "      Bar:",
+                        "        fields:",
+                        "          foo: optional<string>",
+                        "        docs: Shared docs."),
+                StandardCharsets.UTF_8);
+
+        ConjureDefinition definition = Conjure.parse(ImmutableList.of(file));
+        ObjectDefinition foo = object(definition, "Foo");
+        ObjectDefinition bar = object(definition, "Bar");
+        List<FieldDefinition> fooFields = foo.getFields();
+
+        assertThat(fooFields.get(0).getType()).isSameAs(fooFields.get(1).getType());
+        assertThat(foo.getDocs().get()).isSameAs(bar.getDocs().get());
+        assertThat(Conjure.parse(ImmutableList.of(file))).isEqualTo(definition);
+        assertThat(object(Conjure.parse(ImmutableList.of(file)), "Bar").getTypeName()).isSameAs(bar.getTypeName());
+    }
+
+    private static ObjectDefinition object(ConjureDefinition definition, String name) {
+        return definition.getTypes().stream()
+                .filter(typeDef -> typeDef.accept(TypeDefinitionVisitor.IS_OBJECT))
+                .map(typeDef -> typeDef.accept(TypeDefinitionVisitor.OBJECT))
+                .filter(object -> object.getTypeName().getName().equals(name))
+                .findFirst()
+                .get();
+    }
+}
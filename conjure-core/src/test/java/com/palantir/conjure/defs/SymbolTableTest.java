@@ -0,0 +1,63 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.conjure.defs.ConjureTypeParserVisitor.ReferenceTypeResolver;
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.types.names.Namespace;
+import com.palantir.conjure.parser.types.names.TypeName;
+import com.palantir.conjure.parser.types.reference.ForeignReferenceType;
+import com.palantir.conjure.parser.types.reference.LocalReferenceType;
+import com.palantir.conjure.spec.Type;
+import java.io.File;
+import org.junit.Test;
+
+public class SymbolTableTest {
+    private static final ConjureSourceFile PARSED =
+            ConjureParser.parse(new File("src/test/resources/example-conjure-imports.yml"));
+
+    @Test
+    public void resolvesLocalAndForeignReferencesToSharedTypes() {
+        SymbolTable symbols = new SymbolTable();
+        ReferenceTypeResolver resolver = symbols.resolver(PARSED.types());
+        ForeignReferenceType foreign =
+                ForeignReferenceType.of(Namespace.of("imports"), TypeName.of("SimpleObject"));
+
+        Type resolved = resolver.resolve(foreign);
+        assertThat(resolved)
+                .isEqualTo(Type.reference(com.palantir.conjure.spec.TypeName.of("SimpleObject", "test.api")));
+        assertThat(resolver.resolve(foreign)).isSameAs(resolved);
+
+        ReferenceTypeResolver importedResolver = symbols.resolver(
+                PARSED.types().conjureImports().get(Namespace.of("imports")).conjure().types());
+        assertThat(importedResolver.resolve(LocalReferenceType.of(TypeName.of("SimpleObject"))))
+                .isSameAs(resolved);
+        assertThat(resolver.typeVisitor()).isSameAs(resolver.typeVisitor());
+    }
+
+    @Test
+    public void unknownReferencesFail() {
+        ReferenceTypeResolver resolver = new SymbolTable().resolver(PARSED.types());
+        assertThatThrownBy(() -> resolver.resolve(LocalReferenceType.of(TypeName.of("Missing"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Unknown LocalReferenceType");
+    }
+}
@@ -122,6 +122,31 @@ public class ConjureSourceFileValidatorTest {
                 .hasMessageStartingWith("Illegal recursive data type: ");
     }
 
+    @Test
+    public void testNoRecursiveTypeThroughLaterField() {
+        ConjureDefinition conjureDef = ConjureDefinition.builder()
+                .version(1)
+                .types(ImmutableList.of(
+                        TypeDefinition.object(ObjectDefinition.builder()
+                                .typeName(BAR)
+                                .fields(field(FieldName.of("name"), "Name"))
+                                .fields(field(FieldName.of("foo"), "Foo"))
+                                .build()),
+                        TypeDefinition.alias(AliasDefinition.builder()
+                                .typeName(TypeName.of("Name", PACKAGE))
+                                .alias(Type.primitive(PrimitiveType.STRING))
+                                .build()),
+                        TypeDefinition.object(ObjectDefinition.builder()
+                                .typeName(FOO)
+                                .fields(field(FieldName.of("bar"), "Bar"))
+                                .build())))
+                .build();
+
+        assertThatThrownBy(() -> ConjureDefinitionValidator.NO_RECURSIVE_TYPES.validate(conjureDef))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal recursive data type: Bar -> Foo -> Bar");
+    }
+
     @Test
     public void testNoIllegalMapKeys_returns() {
         ConjureDefinition conjureDef = ConjureDefinition.builder()
@@ -234,6 +259,34 @@ public class ConjureSourceFileValidatorTest {
                 .hasMessageStartingWith("Illegal map key found in object Foo");
     }
 
+    @Test
+    public void testValidateAllReportsViolationsInValidatorOrder() {
+        ConjureDefinition conjureDef = ConjureDefinition.builder()
+                .version(1)
+                .types(TypeDefinition.object(ObjectDefinition.builder()
+                        .typeName(FOO)
+                        .fields(FieldDefinition.builder()
+                                .fieldName(FieldName.of("bad"))
+                                .type(Type.map(MapType.of(
+                                        Type.list(ListType.of(Type.primitive(PrimitiveType.STRING))),
+                                        Type.primitive(PrimitiveType.STRING))))
+                                .docs(DOCS)
+                                .build())
+                        .build()))
+                .types(TypeDefinition.alias(AliasDefinition.builder()
+                        .typeName(BAR)
+                        .alias(Type.optional(OptionalType.of(
+                                Type.optional(OptionalType.of(Type.primitive(PrimitiveType.STRING))))))
+                        .build()))
+                .build();
+        assertThatThrownBy(() -> ConjureDefinitionValidator.validateAll(conjureDef))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal nested optionals found in alias Bar");
+        assertThatThrownBy(() -> ConjureDefinitionValidator.ILLEGAL_MAP_KEYS.validate(conjureDef))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal map key found in object Foo");
+    }
+
     private FieldDefinition field(FieldName name, String type) {
         return FieldDefinition.builder()
                 .fieldName(name)
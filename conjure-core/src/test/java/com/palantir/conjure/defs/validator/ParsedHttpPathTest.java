@@ -0,0 +1,50 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.spec.ArgumentName;
+import com.palantir.conjure.spec.HttpPath;
+import org.junit.Test;
+
+public final class ParsedHttpPathTest {
+
+    @Test
+    public void testTemplateComponents() {
+        ParsedHttpPath parsed = ParsedHttpPath.of(HttpPath.of("/abc/{foo}/bar/{baz:.+}"));
+        assertThat(parsed.templateVariables()).containsExactly("foo", "baz");
+        assertThat(parsed.pathArgs()).containsExactly(ArgumentName.of("foo"), ArgumentName.of("baz"));
+        assertThat(parsed.templateSegments()).containsExactly("", "abc", "{foo}", "bar", "{baz}");
+        assertThat(parsed.variablePattern("foo")).isEmpty();
+        assertThat(parsed.variablePattern("baz")).hasValueSatisfying(pattern -> assertThat(pattern.pattern())
+                .isEqualTo(".+"));
+        assertThat(parsed.normalizedPath()).isEqualTo("/abc/{arg}/bar/{arg}");
+    }
+
+    @Test
+    public void testDuplicateVariablesAreRetained() {
+        ParsedHttpPath parsed = ParsedHttpPath.of("/abc/{foo}/{foo}");
+        assertThat(parsed.templateVariables()).containsExactly("foo", "foo");
+        assertThat(parsed.pathArgs()).containsExactly(ArgumentName.of("foo"));
+    }
+
+    @Test
+    public void testParsedPathsAreShared() {
+        assertThat(ParsedHttpPath.of(HttpPath.of("/abc/{foo}"))).isSameAs(ParsedHttpPath.of("/abc/{foo}"));
+    }
+}
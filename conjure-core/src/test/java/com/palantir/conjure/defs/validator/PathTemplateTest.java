@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+public final class PathTemplateTest {
+
+    @Test
+    public void testLiteralPath() {
+        PathTemplate template = PathTemplate.parse("/abc/v1.2/def");
+        assertThat(template.variables()).isEmpty();
+        assertThat(template.normalizedTemplate()).isEqualTo("/abc/v1.2/def");
+    }
+
+    @Test
+    public void testVariables() {
+        PathTemplate template = PathTemplate.parse("/abc/{foo}/{bar:.*}");
+        assertThat(template.variables()).containsExactly("foo", "bar");
+        assertThat(template.normalizedTemplate()).isEqualTo("/abc/{foo}/{bar}");
+        assertThat(template.pattern("foo")).isEmpty();
+        assertThat(template.pattern("bar")).hasValueSatisfying(pattern -> assertThat(pattern.pattern())
+                .isEqualTo(".*"));
+    }
+
+    @Test
+    public void testNestedBracesInRegularExpression() {
+        PathTemplate template = PathTemplate.parse("/abc/{foo:[0-9]{2}}/def");
+        assertThat(template.normalizedTemplate()).isEqualTo("/abc/{foo}/def");
+        assertThat(template.pattern("foo")).hasValueSatisfying(pattern -> assertThat(pattern.pattern())
+                .isEqualTo("[0-9]{2}"));
+    }
+
+    @Test
+    public void testUnbalancedBraces() {
+        assertThatThrownBy(() -> PathTemplate.parse("/abc/{foo"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unmatched '{' at index 5 of path template /abc/{foo");
+        assertThatThrownBy(() -> PathTemplate.parse("/abc/foo}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unmatched '}' at index 8 of path template /abc/foo}");
+    }
+
+    @Test
+    public void testIllegalVariableName() {
+        assertThatThrownBy(() -> PathTemplate.parse("/abc/{}"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Illegal variable name '' at index 5 of path template /abc/{}");
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.conjure.ConjureDefinitionIndex;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import org.junit.Test;
+
+public final class TypeRegistryTest {
+    private static final TypeName FOO = TypeName.of("Foo", "com.palantir.test");
+    private static final TypeName BAR = TypeName.of("Bar", "com.palantir.test");
+    private static final TypeName BAZ = TypeName.of("Baz", "com.palantir.test");
+    private static final TypeName EXTERNAL = TypeName.of("Missing", "com.palantir.test");
+
+    private final ConjureDefinition definition = ConjureDefinition.builder()
+            .version(1)
+            .types(TypeDefinition.object(ObjectDefinition.builder()
+                    .typeName(FOO)
+                    .fields(field("bar", Type.reference(BAR)))
+                    .fields(field("bazs", Type.list(ListType.of(Type.reference(BAZ)))))
+                    .fields(field("missing", Type.reference(EXTERNAL)))
+                    .build()))
+            .types(TypeDefinition.alias(AliasDefinition.builder()
+                    .typeName(BAR)
+                    .alias(Type.reference(BAZ))
+                    .build()))
+            .types(TypeDefinition.alias(AliasDefinition.builder()
+                    .typeName(BAZ)
+                    .alias(Type.primitive(PrimitiveType.STRING))
+                    .build()))
+            .build();
+
+    @Test
+    public void testAssignsIdsInDeclarationOrder() {
+        TypeRegistry registry = TypeRegistry.of(ConjureDefinitionIndex.of(definition));
+
+        assertThat(registry.size()).isEqualTo(3);
+        assertThat(registry.name(0)).isEqualTo(FOO);
+        assertThat(registry.name(1)).isEqualTo(BAR);
+        assertThat(registry.name(2)).isEqualTo(BAZ);
+    }
+
+    @Test
+    public void testTracksOnlyDirectReferencesToDeclaredTypes() {
+        TypeRegistry registry = TypeRegistry.of(ConjureDefinitionIndex.of(definition));
+
+        assertThat(registry.directReferences(0)).containsExactly(1);
+        assertThat(registry.directReferences(1)).containsExactly(2);
+        assertThat(registry.directReferences(2)).isEmpty();
+    }
+
+    private static FieldDefinition field(String name, Type type) {
+        return FieldDefinition.builder().fieldName(FieldName.of(name)).type(type).build();
+    }
+}
@@ -36,6 +36,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.StringJoiner;
+import java.util.stream.Collectors;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -201,6 +202,27 @@ public class ConjureParserTest {
         assertThat(result.types().conjureImports()).isNotEmpty();
     }
 
+    @Test
+    public void testConjureParallelParsingMatchesSequential() throws IOException {
+        List<String> inners = ImmutableList.of("innerOne", "innerTwo", "innerThree", "innerFour");
+        List<String> top = ImmutableList.of("topOne", "topTwo", "topThree", "topFour", "topFive", "topSix");
+        generateFiles(inners, ImmutableList.of());
+        generateFiles(top, inners);
+
+        List<File> files = top.stream()
+                .map(name -> temporaryFolder.getRoot().toPath().resolve(name + ".yml").toFile())
+                .collect(Collectors.toList());
+        assertThat(ConjureParser.parseAnnotated(files, 4)).isEqualTo(ConjureParser.parseAnnotated(files));
+    }
+
+    @Test
+    public void cyclicImportsAreNotAllowedWhenParsingInParallel() {
+        File recursive = new File("src/test/resources/example-recursive-imports.yml");
+        File other = new File("src/test/resources/example-conjure-imports.yml");
+        assertThatThrownBy(() -> ConjureParser.parseAnnotated(ImmutableList.of(other, recursive, other), 3))
+                .isInstanceOf(ConjureParser.CyclicImportException.class);
+    }
+
     private void generateFiles(List<String> names, List<String> importedNamespaces) throws IOException {
         for (String name : names) {
             File file = temporaryFolder.newFile(name + ".yml");
@@ -153,6 +153,37 @@ public final class TypeParserTests {
         TypeParser.INSTANCE.parse("[]");
     }
 
+    @Test(expected = ParseException.class)
+    public void testParser_trailingWhitespace() throws ParseException {
+        TypeParser.INSTANCE.parse("list<string> ");
+    }
+
+    @Test(expected = ParseException.class)
+    public void testParser_trailingCharacter() throws ParseException {
+        TypeParser.INSTANCE.parse("list<string>x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParser_keywordPrefixedName() throws ParseException {
+        TypeParser.INSTANCE.parse("listing");
+    }
+
+    @Test(expected = ParseException.class)
+    public void testParser_unclosedType() throws ParseException {
+        TypeParser.INSTANCE.parse("map<string, list<string>");
+    }
+
+    @Test(expected = ParseException.class)
+    public void testParser_missingForeignTypeName() throws ParseException {
+        TypeParser.INSTANCE.parse("bar.");
+    }
+
+    @Test
+    public void testParser_internsTypes() throws ParseException {
+        assertThat(TypeParser.INSTANCE.parse("map<string, optional<bar.Foo>>"))
+                .isSameAs(TypeParser.INSTANCE.parse("map<string, optional<bar.Foo>>"));
+    }
+
     @Test
     public void testDeserializer_stringType() throws IOException {
         assertThat(new ObjectMapper().readValue("\"string\"", ConjureType.class))
@@ -17,9 +17,13 @@
 package com.palantir.parsec.tests;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.palantir.parsec.FileParserState;
+import com.palantir.parsec.PackratParserState;
 import com.palantir.parsec.ParseException;
 import com.palantir.parsec.Parser;
+import com.palantir.parsec.ParserState;
 import com.palantir.parsec.Parsers;
 import com.palantir.parsec.StringParserState;
 import com.palantir.parsec.parsers.BetweenParser;
@@ -31,14 +35,26 @@ import com.palantir.parsec.parsers.ListParser;
 import com.palantir.parsec.parsers.MapParser;
 import com.palantir.parsec.parsers.QuotedStringParser;
 import com.palantir.parsec.parsers.RawStringParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public final class TestUnitParsers {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testQuotedStringParser() throws ParseException {
         assertThat(new QuotedStringParser(false).parse(new StringParserState("\"Test 123\"")))
@@ -203,4 +219,193 @@ public final class TestUnitParsers {
         assertThat(Parsers.eof(new ExpectantParser("abc")).parse(new StringParserState("abcdef")))
                 .isNull();
     }
+
+    @Test
+    public void testExpectantParserConsumesExpectationLength() {
+        StringParserState state = new StringParserState("abxdefgh");
+        assertThat(new ExpectantParser("abcd").parse(state)).isEqualTo(ExpectationResult.INCORRECT);
+        assertThat(state.getCharPosition()).isEqualTo(4);
+    }
+
+    @Test
+    public void testRawStringParserToken() {
+        StringParserState state = new StringParserState("abc def");
+        assertThat(new RawStringParser().parseToken(state).toString()).isEqualTo("abc");
+        assertThat(new RawStringParser().parseToken(state)).isEmpty();
+        assertThat(state.getCharPosition()).isEqualTo(3);
+    }
+
+    @Test
+    public void testNestedMarks() {
+        StringParserState state = new StringParserState("abcdefghijklmnopqrstuvwxyz");
+        for (int i = 0; i < 20; i++) {
+            state.mark();
+            state.next();
+        }
+        assertThat(state.sinceMark().toString()).isEqualTo("t");
+        for (int i = 0; i < 19; i++) {
+            state.release();
+        }
+        assertThat(state.sinceMark().toString()).isEqualTo("abcdefghijklmnopqrst");
+        state.rewind();
+        assertThat(state.curr()).isEqualTo('a');
+    }
+
+    @Test
+    public void testDefaultSinceMarkReplaysInput() {
+        StringParserState delegate = new StringParserState("abcdef");
+        ParserState state = new ParserState() {
+            @Override
+            public int curr() {
+                return delegate.curr();
+            }
+
+            @Override
+            public int next() {
+                return delegate.next();
+            }
+
+            @Override
+            public void mark() {
+                delegate.mark();
+            }
+
+            @Override
+            public void release() {
+                delegate.release();
+            }
+
+            @Override
+            public void rewind() {
+                delegate.rewind();
+            }
+
+            @Override
+            public int getLine() {
+                return delegate.getLine();
+            }
+
+            @Override
+            public int getCharPosition() {
+                return delegate.getCharPosition();
+            }
+        };
+        state.next();
+        state.mark();
+        state.next();
+        state.next();
+        assertThat(state.sinceMark().toString()).isEqualTo("bc");
+        assertThat(state.curr()).isEqualTo('d');
+        state.rewind();
+        assertThat(state.curr()).isEqualTo('b');
+    }
+
+    @Test
+    public void testFileParserStatePosition() throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "abc def".getBytes(StandardCharsets.UTF_8));
+        try (FileParserState state = new FileParserState(file)) {
+            assertThat(new RawStringParser().parse(state)).isEqualTo("abc");
+            assertThat(state.getCharPosition()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testFileParserStateTracksLines() throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "ab\ncd\n\u00e9".getBytes(StandardCharsets.UTF_8));
+        try (FileParserState state = new FileParserState(file)) {
+            assertThat(state.getLine()).isEqualTo(1);
+            state.next();
+            state.next();
+            state.mark();
+            assertThat(state.next()).isEqualTo('c');
+            assertThat(state.getLine()).isEqualTo(2);
+            assertThat(state.getColumn()).isEqualTo(0);
+            state.next();
+            state.next();
+            state.next();
+            assertThat(state.curr()).isEqualTo('\u00e9');
+            assertThat(state.getLine()).isEqualTo(3);
+            state.rewind();
+            assertThat(state.curr()).isEqualTo('\n');
+            assertThat(state.getLine()).isEqualTo(1);
+            assertThat(state.getColumn()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void testFileParserStateRetainsMarkedInputAcrossBuffers() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            content.append("word").append(i).append(' ');
+        }
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileParserState state = new FileParserState(file)) {
+            state.mark();
+            StringBuilder consumed = new StringBuilder();
+            for (int curr = state.curr(); curr != -1; curr = state.next()) {
+                consumed.append((char) curr);
+            }
+            assertThat(consumed.toString()).isEqualTo(content.toString());
+            assertThat(state.sinceMark().toString()).isEqualTo(content.toString());
+            state.rewind();
+            assertThat(new RawStringParser().parse(state)).isEqualTo("word0");
+        }
+    }
+
+    @Test
+    public void testFileParserStateDetectsChangedFile() throws IOException {
+        byte[] content = new byte[20_000];
+        Arrays.fill(content, (byte) 'a');
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content);
+        try (FileParserState state = new FileParserState(file)) {
+            assertThat(state.curr()).isEqualTo('a');
+            Files.write(file.toPath(), content, StandardOpenOption.APPEND);
+            assertThatThrownBy(() -> {
+                        while (state.next() != -1) {
+                            // read to the end of the file
+                        }
+                    })
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("changed while it was being parsed");
+        }
+    }
+
+    @Test
+    public void testMemoizedParserRunsOncePerPosition() throws ParseException {
+        AtomicInteger invocations = new AtomicInteger();
+        Parser<String> word = Parsers.memoize(input -> {
+            invocations.incrementAndGet();
+            return new RawStringParser(allowing('a', 'z')).parse(input);
+        });
+        Parser<String> exclaimed = Parsers.prefix(word, new RawStringParser(allowing('!', '!')));
+        Parser<String> questioned = Parsers.prefix(word, new RawStringParser(allowing('?', '?')));
+        Parser<String> parser = Parsers.or(exclaimed, questioned);
+
+        assertThat(parser.parse(new StringParserState("abc?"))).isEqualTo("?");
+        assertThat(invocations).hasValue(2);
+
+        invocations.set(0);
+        PackratParserState state = new PackratParserState("abc?");
+        assertThat(parser.parse(state)).isEqualTo("?");
+        assertThat(invocations).hasValue(1);
+        assertThat(state.curr()).isEqualTo(-1);
+    }
+
+    private static RawStringParser.AllowableCharacters allowing(char from, char to) {
+        return new RawStringParser.AllowableCharacters() {
+            @Override
+            public boolean isAllowed(char character) {
+                return character >= from && character <= to;
+            }
+
+            @Override
+            public String getDescription() {
+                return from + "-" + to;
+            }
+        };
+    }
 }
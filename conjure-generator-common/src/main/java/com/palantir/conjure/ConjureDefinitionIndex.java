@@ -0,0 +1,178 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.DealiasingTypeVisitor;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import com.palantir.conjure.visitor.TypeReferences;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Lookup tables over a {@link ConjureDefinition}, built once so that validators and generators can share them instead
+ * of each re-scanning the definition's lists. Types are indexed up front; every other table is built on first use, so
+ * users which only look up types don't pay for the rest.
+ *
+ * <p>If a name is declared more than once, lookups return its first declaration. Instances are immutable and safe to
+ * share between threads; the type closure of each service is computed on first request.
+ */
+public final class ConjureDefinitionIndex {
+    private final ConjureDefinition definition;
+    private final ImmutableMap<TypeName, TypeDefinition> types;
+    private final DealiasingTypeVisitor dealiasingVisitor;
+    private final Supplier<ImmutableMap<TypeName, ErrorDefinition>> errors;
+    private final Supplier<ImmutableMap<TypeName, ServiceDefinition>> services;
+    private final Supplier<ImmutableSetMultimap<TypeName, TypeName>> typeReferences;
+    private final Supplier<ImmutableSetMultimap<TypeName, TypeName>> referencedBy;
+    private final Supplier<ImmutableTable<HttpMethod, HttpPath, EndpointDefinition>> endpoints;
+    private final ConcurrentMap<TypeName, ImmutableSet<TypeName>> serviceTypeClosures = new ConcurrentHashMap<>();
+
+    private ConjureDefinitionIndex(ConjureDefinition definition) {
+        this.definition = definition;
+        this.types = firstByName(definition.getTypes(), type -> type.accept(TypeDefinitionVisitor.TYPE_NAME));
+        this.dealiasingVisitor = new DealiasingTypeVisitor(types);
+        this.errors = Suppliers.memoize(() -> firstByName(definition.getErrors(), ErrorDefinition::getErrorName));
+        this.services =
+                Suppliers.memoize(() -> firstByName(definition.getServices(), ServiceDefinition::getServiceName));
+        this.typeReferences = Suppliers.memoize(this::computeTypeReferences);
+        this.referencedBy = Suppliers.memoize(this::computeReferencedBy);
+        this.endpoints = Suppliers.memoize(this::computeEndpoints);
+    }
+
+    public static ConjureDefinitionIndex of(ConjureDefinition definition) {
+        return new ConjureDefinitionIndex(definition);
+    }
+
+    public ConjureDefinition definition() {
+        return definition;
+    }
+
+    /** All types by name, in declaration order. */
+    public Map<TypeName, TypeDefinition> types() {
+        return types;
+    }
+
+    public Optional<TypeDefinition> type(TypeName name) {
+        return Optional.ofNullable(types.get(name));
+    }
+
+    public Optional<ErrorDefinition> error(TypeName name) {
+        return Optional.ofNullable(errors.get().get(name));
+    }
+
+    public Optional<ServiceDefinition> service(TypeName name) {
+        return Optional.ofNullable(services.get().get(name));
+    }
+
+    /** Returns the endpoint with the given method and path, taking the first one if several services declare it. */
+    public Optional<EndpointDefinition> endpoint(HttpMethod method, HttpPath path) {
+        return Optional.ofNullable(endpoints.get().get(method, path));
+    }
+
+    /** The names of the types, errors and services which directly reference {@code name}. */
+    public Set<TypeName> referencedBy(TypeName name) {
+        return referencedBy.get().get(name);
+    }
+
+    /** The declared types that the given service references, directly or through other types. */
+    public Set<TypeName> typeClosure(TypeName serviceName) {
+        ImmutableSet<TypeName> existing = serviceTypeClosures.get(serviceName);
+        if (existing != null) {
+            return existing;
+        }
+        ServiceDefinition service = service(serviceName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown service: " + serviceName));
+
+        Set<TypeName> closure = new LinkedHashSet<>();
+        Deque<TypeName> pending = new ArrayDeque<>(TypeReferences.of(service));
+        while (!pending.isEmpty()) {
+            TypeName name = pending.pop();
+            if (types.containsKey(name) && closure.add(name)) {
+                pending.addAll(typeReferences.get().get(name));
+            }
+        }
+        ImmutableSet<TypeName> computed = ImmutableSet.copyOf(closure);
+        existing = serviceTypeClosures.putIfAbsent(serviceName, computed);
+        return existing != null ? existing : computed;
+    }
+
+    /** A dealiasing visitor over the types of this definition, shared by all users of the index. */
+    public DealiasingTypeVisitor dealiasingVisitor() {
+        return dealiasingVisitor;
+    }
+
+    private ImmutableSetMultimap<TypeName, TypeName> computeTypeReferences() {
+        ImmutableSetMultimap.Builder<TypeName, TypeName> builder = ImmutableSetMultimap.builder();
+        types.forEach((name, type) -> builder.putAll(name, TypeReferences.of(type)));
+        return builder.build();
+    }
+
+    private ImmutableSetMultimap<TypeName, TypeName> computeReferencedBy() {
+        ImmutableSetMultimap.Builder<TypeName, TypeName> builder = ImmutableSetMultimap.builder();
+        typeReferences.get().forEach((name, reference) -> builder.put(reference, name));
+        for (ErrorDefinition error : errors.get().values()) {
+            TypeReferences.of(error).forEach(reference -> builder.put(reference, error.getErrorName()));
+        }
+        for (ServiceDefinition service : services.get().values()) {
+            TypeReferences.of(service).forEach(reference -> builder.put(reference, service.getServiceName()));
+        }
+        return builder.build();
+    }
+
+    private ImmutableTable<HttpMethod, HttpPath, EndpointDefinition> computeEndpoints() {
+        Table<HttpMethod, HttpPath, EndpointDefinition> table = HashBasedTable.create();
+        for (ServiceDefinition service : services.get().values()) {
+            for (EndpointDefinition endpoint : service.getEndpoints()) {
+                if (!table.contains(endpoint.getHttpMethod(), endpoint.getHttpPath())) {
+                    table.put(endpoint.getHttpMethod(), endpoint.getHttpPath(), endpoint);
+                }
+            }
+        }
+        return ImmutableTable.copyOf(table);
+    }
+
+    private static <T> ImmutableMap<TypeName, T> firstByName(List<T> values, Function<T, TypeName> name) {
+        Map<TypeName, T> byName = new LinkedHashMap<>();
+        values.forEach(value -> byName.putIfAbsent(name.apply(value), value));
+        return ImmutableMap.copyOf(byName);
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import com.palantir.conjure.visitor.TypeReferences;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A read-only view of an IR file which deserializes individual types, errors and services on first access.
+ *
+ * <p>{@link #open} memory-maps the file and makes a single streaming pass over it, recording the name and byte offset
+ * of every definition without building any of them. Generators which only need part of a large IR, such as the types
+ * reachable from a single service, then only pay for that part.
+ *
+ * <p>JSON and CBOR files are indexed. Smile encodes values relative to earlier parts of the document, so Smile files
+ * are read eagerly instead and served from memory through the same interface. Instances are safe to use from multiple
+ * threads.
+ *
+ * <p>{@link #close} releases the mapped file. Definitions which were materialized before remain available, while any
+ * others can no longer be read. Java 8 cannot unmap a buffer explicitly, so the mapping itself is removed once the
+ * buffer has been garbage collected.
+ */
+public final class IndexedIr implements Closeable {
+    private static final String TYPES = "types";
+    private static final String ERRORS = "errors";
+    private static final String SERVICES = "services";
+
+    private final Path path;
+    private final int version;
+    private final Map<String, Object> extensions;
+    private final Section<TypeDefinition> types;
+    private final Section<ErrorDefinition> errors;
+    private final Section<ServiceDefinition> services;
+
+    private IndexedIr(
+            Path path,
+            int version,
+            Map<String, Object> extensions,
+            Section<TypeDefinition> types,
+            Section<ErrorDefinition> errors,
+            Section<ServiceDefinition> services) {
+        this.path = path;
+        this.version = version;
+        this.extensions = extensions;
+        this.types = types;
+        this.errors = errors;
+        this.services = services;
+    }
+
+    public static IndexedIr open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        byte[] header = new byte[Math.min(3, buffer.remaining())];
+        buffer.duplicate().get(header);
+        IrFormat format = IrReader.detectFormat(header, header.length);
+        if (format == IrFormat.SMILE) {
+            return fromDefinition(path, IrReader.read(path));
+        }
+        return index(path, buffer, IrMappers.get(format));
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public Map<String, Object> extensions() {
+        return extensions;
+    }
+
+    /** The names of all types, in the order in which they appear in the IR. */
+    public Set<TypeName> typeNames() {
+        return types.names();
+    }
+
+    public Set<TypeName> errorNames() {
+        return errors.names();
+    }
+
+    public Set<TypeName> serviceNames() {
+        return services.names();
+    }
+
+    public Optional<TypeDefinition> type(TypeName name) {
+        return types.get(name);
+    }
+
+    public Optional<ErrorDefinition> error(TypeName name) {
+        return errors.get(name);
+    }
+
+    public Optional<ServiceDefinition> service(TypeName name) {
+        return services.get(name);
+    }
+
+    /** Releases the mapped IR file, after which definitions which have not been materialized can't be read. */
+    @Override
+    public void close() {
+        types.close();
+        errors.close();
+        services.close();
+    }
+
+    /** Materializes the complete definition. */
+    public ConjureDefinition definition() {
+        return ConjureDefinition.builder()
+                .version(version)
+                .extensions(extensions)
+                .types(types.all())
+                .errors(errors.all())
+                .services(services.all())
+                .build();
+    }
+
+    /**
+     * Materializes a definition holding only the given service and the types it (transitively) references. Errors are
+     * not referenced by services and are not included.
+     */
+    public ConjureDefinition forService(TypeName serviceName) {
+        ServiceDefinition service = service(serviceName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown service " + serviceName + " in " + path));
+
+        Set<TypeName> reachable = new LinkedHashSet<>();
+        Deque<TypeName> pending = new ArrayDeque<>(TypeReferences.of(service));
+        ConjureDefinition.Builder builder = ConjureDefinition.builder()
+                .version(version)
+                .extensions(extensions)
+                .services(service);
+        while (!pending.isEmpty()) {
+            TypeName name = pending.pop();
+            if (reachable.add(name)) {
+                type(name).ifPresent(type -> {
+                    builder.types(type);
+                    pending.addAll(TypeReferences.of(type));
+                });
+            }
+        }
+        return builder.build();
+    }
+
+    private static IndexedIr fromDefinition(Path path, ConjureDefinition definition) {
+        return new IndexedIr(
+                path,
+                definition.getVersion(),
+                definition.getExtensions(),
+                Section.materialized(definition.getTypes(), type -> type.accept(TypeDefinitionVisitor.TYPE_NAME)),
+                Section.materialized(definition.getErrors(), ErrorDefinition::getErrorName),
+                Section.materialized(definition.getServices(), ServiceDefinition::getServiceName));
+    }
+
+    private static IndexedIr index(Path path, ByteBuffer buffer, ObjectMapper mapper) throws IOException {
+        int version = 0;
+        Map<String, Object> extensions = ImmutableMap.of();
+        Map<TypeName, Integer> typeOffsets = ImmutableMap.of();
+        Map<TypeName, Integer> errorOffsets = ImmutableMap.of();
+        Map<TypeName, Integer> serviceOffsets = ImmutableMap.of();
+
+        try (JsonParser parser =
+                mapper.getFactory().createParser(new ByteBufferBackedInputStream(buffer.duplicate()))) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("version")) {
+                    version = parser.getIntValue();
+                } else if (field.equals("extensions")) {
+                    extensions = parser.readValueAs(new TypeReference<Map<String, Object>>() {});
+                } else if (field.equals(TYPES)) {
+                    typeOffsets = indexArray(parser, value, "typeName", 2);
+                } else if (field.equals(ERRORS)) {
+                    errorOffsets = indexArray(parser, value, "errorName", 1);
+                } else if (field.equals(SERVICES)) {
+                    serviceOffsets = indexArray(parser, value, "serviceName", 1);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return new IndexedIr(
+                path,
+                version,
+                extensions,
+                Section.indexed(typeOffsets, buffer, mapper, TypeDefinition.class),
+                Section.indexed(errorOffsets, buffer, mapper, ErrorDefinition.class),
+                Section.indexed(serviceOffsets, buffer, mapper, ServiceDefinition.class));
+    }
+
+    /**
+     * Records the offset of each object in an array, keyed by the value of its {@code nameField} at the given nesting
+     * depth within the object.
+     */
+    private static Map<TypeName, Integer> indexArray(
+            JsonParser parser, JsonToken arrayStart, String nameField, int nameDepth) throws IOException {
+        expect(parser, arrayStart, JsonToken.START_ARRAY);
+        Map<TypeName, Integer> offsets = new LinkedHashMap<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(parser, token, JsonToken.START_OBJECT);
+            long offset = parser.getTokenLocation().getByteOffset();
+            TypeName name = null;
+            int depth = 1;
+            while (depth > 0) {
+                token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    depth++;
+                } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    depth--;
+                } else if (token == JsonToken.FIELD_NAME
+                        && depth == nameDepth
+                        && name == null
+                        && parser.getCurrentName().equals(nameField)) {
+                    parser.nextToken();
+                    name = parser.readValueAs(TypeName.class);
+                }
+            }
+            if (name == null) {
+                throw new IllegalStateException("Missing " + nameField + " in IR definition at offset " + offset);
+            }
+            offsets.putIfAbsent(name, Math.toIntExact(offset));
+        }
+        return offsets;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Expected " + expected + " but found " + actual + " at "
+                    + parser.getTokenLocation());
+        }
+    }
+
+    /** Definitions of one kind, each either located by its offset in the mapped file or already materialized. */
+    private static final class Section<T> {
+        private final ImmutableSet<TypeName> names;
+        private final Map<TypeName, Integer> offsets;
+        private final ConcurrentMap<TypeName, T> materialized;
+        @Nullable
+        private volatile ByteBuffer buffer;
+
+        @Nullable
+        private final ObjectMapper mapper;
+
+        @Nullable
+        private final Class<T> valueType;
+
+        private Section(
+                ImmutableSet<TypeName> names,
+                Map<TypeName, Integer> offsets,
+                ConcurrentMap<TypeName, T> materialized,
+                @Nullable ByteBuffer buffer,
+                @Nullable ObjectMapper mapper,
+                @Nullable Class<T> valueType) {
+            this.names = names;
+            this.offsets = offsets;
+            this.materialized = materialized;
+            this.buffer = buffer;
+            this.mapper = mapper;
+            this.valueType = valueType;
+        }
+
+        static <T> Section<T> indexed(
+                Map<TypeName, Integer> offsets, ByteBuffer buffer, ObjectMapper mapper, Class<T> valueType) {
+            return new Section<>(
+                    ImmutableSet.copyOf(offsets.keySet()),
+                    ImmutableMap.copyOf(offsets),
+                    new ConcurrentHashMap<>(),
+                    buffer,
+                    mapper,
+                    valueType);
+        }
+
+        static <T> Section<T> materialized(Iterable<T> values, Function<T, TypeName> nameFunction) {
+            ConcurrentMap<TypeName, T> materialized = new ConcurrentHashMap<>();
+            ImmutableSet.Builder<TypeName> names = ImmutableSet.builder();
+            for (T value : values) {
+                TypeName name = nameFunction.apply(value);
+                if (materialized.putIfAbsent(name, value) == null) {
+                    names.add(name);
+                }
+            }
+            return new Section<>(names.build(), ImmutableMap.of(), materialized, null, null, null);
+        }
+
+        ImmutableSet<TypeName> names() {
+            return names;
+        }
+
+        Optional<T> get(TypeName name) {
+            T existing = materialized.get(name);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            Integer offset = offsets.get(name);
+            if (offset == null) {
+                return Optional.empty();
+            }
+            T value = read(offset);
+            existing = materialized.putIfAbsent(name, value);
+            return Optional.of(existing != null ? existing : value);
+        }
+
+        void close() {
+            buffer = null;
+        }
+
+        Iterable<T> all() {
+            return () -> names.stream().map(name -> get(name).get()).iterator();
+        }
+
+        private T read(int offset) {
+            ByteBuffer mapped = buffer;
+            if (mapped == null) {
+                throw new IllegalStateException(
+                        "Failed to read " + valueType.getSimpleName() + " at offset " + offset + ": IR is closed");
+            }
+            ByteBuffer slice = mapped.duplicate();
+            slice.position(offset);
+            try {
+                return mapper.readValue(new ByteBufferBackedInputStream(slice), valueType);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read " + valueType.getSimpleName() + " at offset " + offset, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/** Encodings in which a {@link com.palantir.conjure.spec.ConjureDefinition} IR file can be written and read. */
+public enum IrFormat {
+    /** Indented JSON. */
+    JSON("json", ".json"),
+    /** JSON without any whitespace between tokens. */
+    COMPACT_JSON("compact-json", ".json"),
+    /** Jackson's binary <a href="https://github.com/FasterXML/smile-format-specification">Smile</a> encoding. */
+    SMILE("smile", ".smile"),
+    /** <a href="https://tools.ietf.org/html/rfc7049">CBOR</a>, prefixed with the self-describe tag. */
+    CBOR("cbor", ".cbor");
+
+    private final String formatName;
+    private final String fileExtension;
+
+    IrFormat(String formatName, String fileExtension) {
+        this.formatName = formatName;
+        this.fileExtension = fileExtension;
+    }
+
+    /** The name of this format on the command line, e.g. {@code compact-json}. */
+    public String formatName() {
+        return formatName;
+    }
+
+    /** The conventional extension of files in this format, including the leading dot. */
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    public static IrFormat fromName(String formatName) {
+        for (IrFormat format : values()) {
+            if (format.formatName.equals(formatName)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown IR format '" + formatName + "', expected one of "
+                + Arrays.stream(values()).map(IrFormat::formatName).collect(Collectors.joining(", ")));
+    }
+
+    JsonFactory newFactory() {
+        switch (this) {
+            case JSON:
+            case COMPACT_JSON:
+                return new JsonFactory();
+            case SMILE:
+                return new SmileFactory();
+            case CBOR:
+                return CBORFactory.builder()
+                        .enable(CBORGenerator.Feature.WRITE_TYPE_HEADER)
+                        .build();
+        }
+        throw new IllegalStateException("Unknown IR format: " + this);
+    }
+
+    @Override
+    public String toString() {
+        return formatName;
+    }
+}
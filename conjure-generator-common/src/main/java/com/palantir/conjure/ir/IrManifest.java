@@ -0,0 +1,44 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.Map;
+import java.util.Set;
+import org.immutables.value.Value;
+
+/** Describes the per-package IR shards written by {@link IrShards#write}. */
+@Value.Immutable
+@Value.Style(jdkOnly = true)
+@JsonSerialize(as = ImmutableIrManifest.class)
+@JsonDeserialize(as = ImmutableIrManifest.class)
+public interface IrManifest {
+    int CURRENT_VERSION = 1;
+
+    int version();
+
+    /** The file holding each package's shard, relative to the manifest. */
+    Map<String, String> shards();
+
+    /** For each package, the other packages whose types its shard references. */
+    Map<String, Set<String>> dependencies();
+
+    static ImmutableIrManifest.Builder builder() {
+        return ImmutableIrManifest.builder();
+    }
+}
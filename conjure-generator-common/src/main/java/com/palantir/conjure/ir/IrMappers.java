@@ -0,0 +1,44 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+
+/** One shared, identically configured {@link ObjectMapper} per {@link IrFormat}. */
+final class IrMappers {
+    private static final Map<IrFormat, ObjectMapper> MAPPERS = Maps.immutableEnumMap(Arrays.stream(IrFormat.values())
+            .collect(ImmutableMap.toImmutableMap(Function.identity(), IrMappers::create)));
+
+    private IrMappers() {}
+
+    static ObjectMapper get(IrFormat format) {
+        return MAPPERS.get(format);
+    }
+
+    private static ObjectMapper create(IrFormat format) {
+        return new ObjectMapper(format.newFactory())
+                .registerModule(new Jdk8Module())
+                .setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads {@link ConjureDefinition} IR written in any {@link IrFormat}. The format is detected from the leading bytes of
+ * the input, so generators don't need to know how an IR file was produced.
+ */
+public final class IrReader {
+    private static final int HEADER_LENGTH = 3;
+
+    private IrReader() {}
+
+    public static ConjureDefinition read(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            return read(input);
+        }
+    }
+
+    /** Reads a definition from {@code input}, which is consumed and closed. */
+    public static ConjureDefinition read(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input);
+        buffered.mark(HEADER_LENGTH);
+        byte[] header = new byte[HEADER_LENGTH];
+        int length = 0;
+        int read;
+        while (length < HEADER_LENGTH && (read = buffered.read(header, length, HEADER_LENGTH - length)) != -1) {
+            length += read;
+        }
+        buffered.reset();
+        return IrMappers.get(detectFormat(header, length)).readValue(buffered, ConjureDefinition.class);
+    }
+
+    /**
+     * Detects the format of an IR file from its first bytes. Both JSON formats are read in the same way, so
+     * {@link IrFormat#COMPACT_JSON} is never returned.
+     */
+    static IrFormat detectFormat(byte[] header, int length) {
+        // Smile documents start with ":)\n"
+        if (length >= 3 && header[0] == ':' && header[1] == ')' && header[2] == '\n') {
+            return IrFormat.SMILE;
+        }
+        // CBOR documents start with the self-describe tag 0xd9d9f7, or directly with a map (major type 5)
+        if (length >= 1 && ((header[0] & 0xff) == 0xd9 || (header[0] & 0xe0) == 0xa0)) {
+            return IrFormat.CBOR;
+        }
+        return IrFormat.JSON;
+    }
+}
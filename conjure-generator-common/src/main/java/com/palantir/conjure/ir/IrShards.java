@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import com.palantir.conjure.visitor.TypeReferences;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Splits a {@link ConjureDefinition} into one IR file per conjure package, so that generators can process packages in
+ * parallel and skip those whose IR is unchanged. Shards are written to a {@value #SHARD_DIRECTORY} subdirectory, and
+ * a {@value #MANIFEST_FILE} next to it lists the shard of each package and the packages it references. As packages
+ * cannot start with an underscore, the shard of the default (empty) package is named {@code _default}.
+ *
+ * <p>Each shard holds the types, errors and services of its package, together with the version and extensions of the
+ * whole definition. Shards are written with {@link IrWriter#writeIfChanged}, so unchanged packages keep their
+ * modification times.
+ */
+public final class IrShards {
+    public static final String MANIFEST_FILE = "manifest.json";
+    public static final String SHARD_DIRECTORY = "shards";
+
+    private static final String DEFAULT_PACKAGE_SHARD = "_default";
+
+    private IrShards() {}
+
+    /** Partitions {@code definition} by package, in package order. */
+    public static SortedMap<String, ConjureDefinition> partition(ConjureDefinition definition) {
+        SortedMap<String, ConjureDefinition.Builder> builders = new TreeMap<>();
+        for (TypeDefinition type : definition.getTypes()) {
+            shard(builders, definition, type.accept(TypeDefinitionVisitor.TYPE_NAME)).types(type);
+        }
+        for (ErrorDefinition error : definition.getErrors()) {
+            shard(builders, definition, error.getErrorName()).errors(error);
+        }
+        for (ServiceDefinition service : definition.getServices()) {
+            shard(builders, definition, service.getServiceName()).services(service);
+        }
+
+        SortedMap<String, ConjureDefinition> shards = new TreeMap<>();
+        builders.forEach((conjurePackage, builder) -> shards.put(conjurePackage, builder.build()));
+        return shards;
+    }
+
+    /** Returns the packages, other than its own, whose types are referenced by the given shard. */
+    public static Set<String> dependencies(String conjurePackage, ConjureDefinition shard) {
+        Set<String> dependencies = new TreeSet<>();
+        shard.getTypes().forEach(type -> addPackages(dependencies, TypeReferences.of(type)));
+        shard.getErrors().forEach(error -> addPackages(dependencies, TypeReferences.of(error)));
+        shard.getServices().forEach(service -> addPackages(dependencies, TypeReferences.of(service)));
+        dependencies.remove(conjurePackage);
+        return dependencies;
+    }
+
+    /**
+     * Writes the shards of {@code definition} and their manifest to {@code directory}, which is created if necessary.
+     * Shards listed by a previous manifest in the directory whose packages no longer exist are deleted, unless the
+     * manifest places them outside of the shard directory.
+     */
+    public static IrManifest write(ConjureDefinition definition, Path directory, IrFormat format) throws IOException {
+        Files.createDirectories(directory.resolve(SHARD_DIRECTORY));
+        Optional<IrManifest> previous = readManifestIfPresent(directory);
+
+        ImmutableIrManifest.Builder manifest = IrManifest.builder().version(IrManifest.CURRENT_VERSION);
+        for (Map.Entry<String, ConjureDefinition> shard : partition(definition).entrySet()) {
+            String fileName = SHARD_DIRECTORY + '/' + shardName(shard.getKey()) + format.fileExtension();
+            IrWriter.writeIfChanged(shard.getValue(), resolveShard(directory, fileName), format);
+            manifest.putShards(shard.getKey(), fileName);
+            manifest.putDependencies(shard.getKey(), dependencies(shard.getKey(), shard.getValue()));
+        }
+        IrManifest written = manifest.build();
+
+        if (previous.isPresent()) {
+            for (String staleFile : previous.get().shards().values()) {
+                if (!written.shards().containsValue(staleFile)) {
+                    Optional<Path> stalePath = shardPath(directory, staleFile);
+                    if (stalePath.isPresent()) {
+                        Files.deleteIfExists(stalePath.get());
+                    }
+                }
+            }
+        }
+        IrWriter.writeIfChanged(
+                directory.resolve(MANIFEST_FILE), output -> IrWriter.writeValue(written, output, IrFormat.JSON));
+        return written;
+    }
+
+    public static IrManifest readManifest(Path directory) throws IOException {
+        try (InputStream input = Files.newInputStream(directory.resolve(MANIFEST_FILE))) {
+            return IrMappers.get(IrFormat.JSON).readValue(input, IrManifest.class);
+        }
+    }
+
+    /** Reads the shard of {@code conjurePackage} listed by {@code manifest}, which was read from {@code directory}. */
+    public static ConjureDefinition readShard(Path directory, IrManifest manifest, String conjurePackage)
+            throws IOException {
+        String fileName = manifest.shards().get(conjurePackage);
+        if (fileName == null) {
+            throw new IllegalArgumentException("No IR shard for package " + conjurePackage);
+        }
+        return IrReader.read(resolveShard(directory, fileName));
+    }
+
+    private static String shardName(String conjurePackage) {
+        return conjurePackage.isEmpty() ? DEFAULT_PACKAGE_SHARD : conjurePackage;
+    }
+
+    private static Path resolveShard(Path directory, String fileName) {
+        return shardPath(directory, fileName)
+                .orElseThrow(() -> new IllegalArgumentException("IR shard is outside of the shard directory: "
+                        + directory.resolve(fileName)));
+    }
+
+    /** Resolves a shard listed by a manifest, which may have been edited, unless it escapes the shard directory. */
+    private static Optional<Path> shardPath(Path directory, String fileName) {
+        Path shardDirectory = directory.resolve(SHARD_DIRECTORY).toAbsolutePath().normalize();
+        Path shard = directory.resolve(fileName).toAbsolutePath().normalize();
+        return shard.startsWith(shardDirectory) && !shard.equals(shardDirectory)
+                ? Optional.of(shard)
+                : Optional.empty();
+    }
+
+    private static Optional<IrManifest> readManifestIfPresent(Path directory) throws IOException {
+        return Files.isRegularFile(directory.resolve(MANIFEST_FILE))
+                ? Optional.of(readManifest(directory))
+                : Optional.empty();
+    }
+
+    private static ConjureDefinition.Builder shard(
+            Map<String, ConjureDefinition.Builder> builders, ConjureDefinition definition, TypeName name) {
+        ConjureDefinition.Builder builder = builders.get(name.getPackage());
+        if (builder == null) {
+            builder = ConjureDefinition.builder()
+                    .version(definition.getVersion())
+                    .extensions(definition.getExtensions());
+            builders.put(name.getPackage(), builder);
+        }
+        return builder;
+    }
+
+    private static void addPackages(Set<String> packages, Set<TypeName> names) {
+        names.forEach(name -> packages.add(name.getPackage()));
+    }
+}
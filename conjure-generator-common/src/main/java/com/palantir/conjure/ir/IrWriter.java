@@ -0,0 +1,97 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.MoreFiles;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/** Writes {@link ConjureDefinition} IR in any {@link IrFormat}, streaming it straight to the output. */
+public final class IrWriter {
+    private IrWriter() {}
+
+    public static void write(ConjureDefinition definition, Path path, IrFormat format) throws IOException {
+        try (OutputStream output = Files.newOutputStream(path)) {
+            write(definition, output, format);
+        }
+    }
+
+    /**
+     * Writes {@code definition} to {@code path} unless the file already holds exactly the bytes that would be written,
+     * in which case it is left untouched so that its modification time doesn't invalidate downstream tasks. The new
+     * content is written to a temporary file in the same directory and atomically moved into place, so readers never
+     * observe a partially written file. The replaced file keeps its permissions; a new file gets the default ones.
+     *
+     * @return whether {@code path} was written
+     */
+    public static boolean writeIfChanged(ConjureDefinition definition, Path path, IrFormat format) throws IOException {
+        return writeIfChanged(path, output -> write(definition, output, format));
+    }
+
+    static boolean writeIfChanged(Path path, ContentWriter content) throws IOException {
+        Path target = path.toAbsolutePath();
+        // unlike Files.createTempFile, which restricts the file to its owner, this honours the umask
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream output =
+                    Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                content.write(output);
+            }
+            boolean exists = Files.isRegularFile(target);
+            if (exists
+                    && Files.size(target) == Files.size(temp)
+                    && MoreFiles.asByteSource(target).contentEquals(MoreFiles.asByteSource(temp))) {
+                return false;
+            }
+            if (exists && Files.getFileStore(target).supportsFileAttributeView("posix")) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Writes {@code definition} to {@code output}, which is flushed but left open. */
+    public static void write(ConjureDefinition definition, OutputStream output, IrFormat format) throws IOException {
+        writeValue(definition, output, format);
+    }
+
+    static void writeValue(Object value, OutputStream output, IrFormat format) throws IOException {
+        ObjectMapper mapper = IrMappers.get(format);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (format == IrFormat.JSON) {
+                generator.useDefaultPrettyPrinter();
+            }
+            mapper.writeValue(generator, value);
+        }
+    }
+
+    interface ContentWriter {
+        void write(OutputStream output) throws IOException;
+    }
+}
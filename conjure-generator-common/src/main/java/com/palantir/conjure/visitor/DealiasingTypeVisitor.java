@@ -31,10 +31,24 @@ import com.palantir.conjure.spec.Type;
 import com.palantir.conjure.spec.TypeDefinition;
 import com.palantir.conjure.spec.TypeName;
 import com.palantir.conjure.spec.UnionDefinition;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves references through any number of aliases. The terminal form of each referenced {@link TypeName} is computed
+ * once, on first use, and shared by every alias in its chain, so instances should be reused for a given set of types.
+ * Instances are safe to use from multiple threads.
+ */
 public final class DealiasingTypeVisitor implements Type.Visitor<Either<TypeDefinition, Type>> {
+    private static final TerminalDefinitionVisitor TERMINAL_DEFINITION = new TerminalDefinitionVisitor();
+
     private final Map<TypeName, TypeDefinition> objects;
+    private final ConcurrentMap<TypeName, Either<TypeDefinition, Type>> dealiased = new ConcurrentHashMap<>();
 
     public DealiasingTypeVisitor(Map<TypeName, TypeDefinition> objects) {
         this.objects = objects;
@@ -54,36 +68,45 @@ public final class DealiasingTypeVisitor implements Type.Visitor<Either<TypeDefi
 
     @Override
     public Either<TypeDefinition, Type> visitReference(TypeName value) {
-        TypeDefinition typeDefinition = objects.get(value);
-        Preconditions.checkState(
-                typeDefinition != null, "Referenced TypeDefinition not found in map of types for TypeName: %s", value);
-        return typeDefinition.accept(new TypeDefinition.Visitor<Either<TypeDefinition, Type>>() {
-            @Override
-            public Either<TypeDefinition, Type> visitAlias(AliasDefinition value) {
-                // Recursively visit target of alias
-                return value.getAlias().accept(DealiasingTypeVisitor.this);
+        Either<TypeDefinition, Type> cached = dealiased.get(value);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Walk the alias chain iteratively, stopping early at any link which has already been resolved
+        List<TypeName> chain = new ArrayList<>();
+        Either<TypeDefinition, Type> result = null;
+        TypeName current = value;
+        while (result == null) {
+            if (chain.contains(current)) {
+                chain.add(current);
+                throw new IllegalStateException("Illegal alias cycle: "
+                        + chain.subList(chain.indexOf(current), chain.size()).stream()
+                                .map(TypeName::getName)
+                                .collect(Collectors.joining(" -> ")));
             }
-
-            @Override
-            public Either<TypeDefinition, Type> visitEnum(EnumDefinition value) {
-                return Either.left(TypeDefinition.enum_(value));
-            }
-
-            @Override
-            public Either<TypeDefinition, Type> visitObject(ObjectDefinition value) {
-                return Either.left(TypeDefinition.object(value));
+            chain.add(current);
+
+            TypeDefinition typeDefinition = objects.get(current);
+            Preconditions.checkState(
+                    typeDefinition != null,
+                    "Referenced TypeDefinition not found in map of types for TypeName: %s",
+                    current);
+            Optional<Type> aliasTarget = typeDefinition.accept(TERMINAL_DEFINITION);
+            if (!aliasTarget.isPresent()) {
+                result = Either.left(typeDefinition);
+            } else if (aliasTarget.get().accept(TypeVisitor.IS_REFERENCE)) {
+                current = aliasTarget.get().accept(TypeVisitor.REFERENCE);
+                result = dealiased.get(current);
+            } else {
+                result = aliasTarget.get().accept(this);
             }
+        }
 
-            @Override
-            public Either<TypeDefinition, Type> visitUnion(UnionDefinition value) {
-                return Either.left(TypeDefinition.union(value));
-            }
-
-            @Override
-            public Either<TypeDefinition, Type> visitUnknown(String unknownType) {
-                throw new IllegalStateException("Unsupported type: " + unknownType);
-            }
-        });
+        for (TypeName link : chain) {
+            dealiased.putIfAbsent(link, result);
+        }
+        return result;
     }
 
     // Identity mapping for here onwards.
@@ -122,4 +145,32 @@ public final class DealiasingTypeVisitor implements Type.Visitor<Either<TypeDefi
     public Either<TypeDefinition, Type> visitUnknown(String unknownType) {
         throw new IllegalStateException("Unsupported type: " + unknownType);
     }
+
+    /** Returns the target of an alias, or empty for definitions which are their own terminal form. */
+    private static final class TerminalDefinitionVisitor implements TypeDefinition.Visitor<Optional<Type>> {
+        @Override
+        public Optional<Type> visitAlias(AliasDefinition value) {
+            return Optional.of(value.getAlias());
+        }
+
+        @Override
+        public Optional<Type> visitEnum(EnumDefinition _value) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Type> visitObject(ObjectDefinition _value) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Type> visitUnion(UnionDefinition _value) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Type> visitUnknown(String unknownType) {
+            throw new IllegalStateException("Unsupported type: " + unknownType);
+        }
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.visitor;
+
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ArgumentDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EnumDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ExternalReference;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.MapType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.SetType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.spec.UnionDefinition;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Finds the conjure types referenced by types and definitions, looking through optionals, collections and maps.
+ * External types are not conjure definitions and are never included. Results are in order of first occurrence.
+ */
+public final class TypeReferences {
+    private TypeReferences() {}
+
+    public static Set<TypeName> of(Type type) {
+        ReferenceCollector collector = new ReferenceCollector();
+        type.accept(collector);
+        return collector.references;
+    }
+
+    /** The types referenced by an alias target, or the fields of an object or union. */
+    public static Set<TypeName> of(TypeDefinition typeDefinition) {
+        ReferenceCollector collector = new ReferenceCollector();
+        typeDefinition.accept(new TypeDefinition.Visitor<Void>() {
+            @Override
+            public Void visitAlias(AliasDefinition value) {
+                return value.getAlias().accept(collector);
+            }
+
+            @Override
+            public Void visitEnum(EnumDefinition _value) {
+                return null;
+            }
+
+            @Override
+            public Void visitObject(ObjectDefinition value) {
+                value.getFields().forEach(field -> field.getType().accept(collector));
+                return null;
+            }
+
+            @Override
+            public Void visitUnion(UnionDefinition value) {
+                value.getUnion().forEach(field -> field.getType().accept(collector));
+                return null;
+            }
+
+            @Override
+            public Void visitUnknown(String unknownType) {
+                throw new IllegalStateException("Unsupported type: " + unknownType);
+            }
+        });
+        return collector.references;
+    }
+
+    /** The types referenced by the safe and unsafe arguments of an error. */
+    public static Set<TypeName> of(ErrorDefinition errorDefinition) {
+        ReferenceCollector collector = new ReferenceCollector();
+        for (FieldDefinition arg : errorDefinition.getSafeArgs()) {
+            arg.getType().accept(collector);
+        }
+        for (FieldDefinition arg : errorDefinition.getUnsafeArgs()) {
+            arg.getType().accept(collector);
+        }
+        return collector.references;
+    }
+
+    /** The types referenced by the arguments, argument markers, return type and markers of an endpoint. */
+    public static Set<TypeName> of(EndpointDefinition endpointDefinition) {
+        ReferenceCollector collector = new ReferenceCollector();
+        collect(endpointDefinition, collector);
+        return collector.references;
+    }
+
+    /** The types referenced by any endpoint of a service. */
+    public static Set<TypeName> of(ServiceDefinition serviceDefinition) {
+        ReferenceCollector collector = new ReferenceCollector();
+        serviceDefinition.getEndpoints().forEach(endpoint -> collect(endpoint, collector));
+        return collector.references;
+    }
+
+    private static void collect(EndpointDefinition endpointDefinition, ReferenceCollector collector) {
+        for (ArgumentDefinition arg : endpointDefinition.getArgs()) {
+            arg.getType().accept(collector);
+            arg.getMarkers().forEach(marker -> marker.accept(collector));
+        }
+        endpointDefinition.getReturns().ifPresent(returns -> returns.accept(collector));
+        endpointDefinition.getMarkers().forEach(marker -> marker.accept(collector));
+    }
+
+    private static final class ReferenceCollector implements Type.Visitor<Void> {
+        private final Set<TypeName> references = new LinkedHashSet<>();
+
+        @Override
+        public Void visitPrimitive(PrimitiveType _value) {
+            return null;
+        }
+
+        @Override
+        public Void visitOptional(OptionalType value) {
+            return value.getItemType().accept(this);
+        }
+
+        @Override
+        public Void visitList(ListType value) {
+            return value.getItemType().accept(this);
+        }
+
+        @Override
+        public Void visitSet(SetType value) {
+            return value.getItemType().accept(this);
+        }
+
+        @Override
+        public Void visitMap(MapType value) {
+            value.getKeyType().accept(this);
+            return value.getValueType().accept(this);
+        }
+
+        @Override
+        public Void visitReference(TypeName value) {
+            references.add(value);
+            return null;
+        }
+
+        @Override
+        public Void visitExternal(ExternalReference _value) {
+            return null;
+        }
+
+        @Override
+        public Void visitUnknown(String unknownType) {
+            throw new IllegalStateException("Unsupported type: " + unknownType);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.conjure.either.Either;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.ErrorCode;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ErrorNamespace;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import org.junit.Test;
+
+public class ConjureDefinitionIndexTest {
+    private static final TypeName RESPONSE = TypeName.of("Response", "com.palantir.test");
+    private static final TypeName ID = TypeName.of("Id", "com.palantir.test");
+    private static final TypeName UNUSED = TypeName.of("Unused", "com.palantir.test");
+    private static final TypeName ERROR = TypeName.of("NotFound", "com.palantir.test");
+    private static final TypeName SERVICE = TypeName.of("TestService", "com.palantir.test");
+    private static final EndpointDefinition ENDPOINT = EndpointDefinition.builder()
+            .endpointName(EndpointName.of("get"))
+            .httpMethod(HttpMethod.GET)
+            .httpPath(HttpPath.of("/get"))
+            .returns(Type.reference(RESPONSE))
+            .build();
+
+    private final ConjureDefinitionIndex index = ConjureDefinitionIndex.of(ConjureDefinition.builder()
+            .version(1)
+            .types(TypeDefinition.object(ObjectDefinition.builder()
+                    .typeName(RESPONSE)
+                    .fields(FieldDefinition.builder()
+                            .fieldName(FieldName.of("ids"))
+                            .type(Type.list(ListType.of(Type.reference(ID))))
+                            .build())
+                    .build()))
+            .types(TypeDefinition.alias(AliasDefinition.builder()
+                    .typeName(ID)
+                    .alias(Type.primitive(PrimitiveType.STRING))
+                    .build()))
+            .types(TypeDefinition.alias(AliasDefinition.builder()
+                    .typeName(UNUSED)
+                    .alias(Type.reference(ID))
+                    .build()))
+            .errors(ErrorDefinition.builder()
+                    .errorName(ERROR)
+                    .namespace(ErrorNamespace.of("Test"))
+                    .code(ErrorCode.NOT_FOUND)
+                    .safeArgs(FieldDefinition.builder()
+                            .fieldName(FieldName.of("id"))
+                            .type(Type.reference(ID))
+                            .build())
+                    .build())
+            .services(ServiceDefinition.builder()
+                    .serviceName(SERVICE)
+                    .endpoints(ENDPOINT)
+                    .build())
+            .build());
+
+    @Test
+    public void testLooksUpDefinitionsByName() {
+        assertThat(index.types()).containsOnlyKeys(RESPONSE, ID, UNUSED);
+        assertThat(index.type(ID)).contains(index.definition().getTypes().get(1));
+        assertThat(index.type(ERROR)).isEmpty();
+        assertThat(index.error(ERROR)).contains(index.definition().getErrors().get(0));
+        assertThat(index.service(SERVICE)).contains(index.definition().getServices().get(0));
+        assertThat(index.endpoint(HttpMethod.GET, HttpPath.of("/get"))).contains(ENDPOINT);
+        assertThat(index.endpoint(HttpMethod.POST, HttpPath.of("/get"))).isEmpty();
+    }
+
+    @Test
+    public void testTracksReverseReferences() {
+        assertThat(index.referencedBy(ID)).containsExactlyInAnyOrder(RESPONSE, UNUSED, ERROR);
+        assertThat(index.referencedBy(RESPONSE)).containsExactly(SERVICE);
+        assertThat(index.referencedBy(UNUSED)).isEmpty();
+    }
+
+    @Test
+    public void testComputesServiceTypeClosure() {
+        assertThat(index.typeClosure(SERVICE)).containsExactly(RESPONSE, ID);
+        assertThat(index.typeClosure(SERVICE)).isSameAs(index.typeClosure(SERVICE));
+        assertThatThrownBy(() -> index.typeClosure(RESPONSE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown service");
+    }
+
+    @Test
+    public void testSharesDealiasingVisitor() {
+        assertThat(index.dealiasingVisitor().dealias(Type.reference(UNUSED)))
+                .isEqualTo(Either.right(Type.primitive(PrimitiveType.STRING)));
+    }
+}
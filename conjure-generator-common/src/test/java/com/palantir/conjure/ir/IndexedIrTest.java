@@ -0,0 +1,130 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.ErrorCode;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ErrorNamespace;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IndexedIrTest {
+    private static final TypeName RESPONSE = TypeName.of("Response", "com.palantir.test");
+    private static final TypeName ID = TypeName.of("Id", "com.palantir.test");
+    private static final TypeName UNUSED = TypeName.of("Unused", "com.palantir.test");
+    private static final TypeName ERROR = TypeName.of("NotFound", "com.palantir.test");
+    private static final TypeName SERVICE = TypeName.of("TestService", "com.palantir.test");
+
+    private static final ConjureDefinition DEFINITION = ConjureDefinition.builder()
+            .version(1)
+            .extensions(ImmutableMap.of("key", "value"))
+            .types(TypeDefinition.object(ObjectDefinition.builder()
+                    .typeName(RESPONSE)
+                    .fields(FieldDefinition.builder()
+                            .fieldName(FieldName.of("typeName"))
+                            .type(Type.optional(OptionalType.of(Type.reference(ID))))
+                            .build())
+                    .build()))
+            .types(TypeDefinition.alias(AliasDefinition.builder()
+                    .typeName(ID)
+                    .alias(Type.primitive(PrimitiveType.STRING))
+                    .build()))
+            .types(TypeDefinition.alias(AliasDefinition.builder()
+                    .typeName(UNUSED)
+                    .alias(Type.primitive(PrimitiveType.INTEGER))
+                    .build()))
+            .errors(ErrorDefinition.builder()
+                    .errorName(ERROR)
+                    .namespace(ErrorNamespace.of("Test"))
+                    .code(ErrorCode.NOT_FOUND)
+                    .build())
+            .services(ServiceDefinition.builder()
+                    .serviceName(SERVICE)
+                    .endpoints(EndpointDefinition.builder()
+                            .endpointName(EndpointName.of("get"))
+                            .httpMethod(HttpMethod.GET)
+                            .httpPath(HttpPath.of("/get"))
+                            .returns(Type.reference(RESPONSE))
+                            .build())
+                    .build())
+            .build();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testIndexesEveryFormat() throws IOException {
+        for (IrFormat format : IrFormat.values()) {
+            try (IndexedIr ir = IndexedIr.open(write(format))) {
+                assertThat(ir.version()).isEqualTo(1);
+                assertThat(ir.extensions()).isEqualTo(DEFINITION.getExtensions());
+                assertThat(ir.typeNames()).containsExactly(RESPONSE, ID, UNUSED);
+                assertThat(ir.errorNames()).containsExactly(ERROR);
+                assertThat(ir.serviceNames()).containsExactly(SERVICE);
+                assertThat(ir.type(ID)).contains(DEFINITION.getTypes().get(1));
+                assertThat(ir.type(TypeName.of("Missing", "com.palantir.test"))).isEmpty();
+                assertThat(ir.error(ERROR)).contains(DEFINITION.getErrors().get(0));
+                assertThat(ir.definition()).describedAs("format %s", format).isEqualTo(DEFINITION);
+            }
+        }
+    }
+
+    @Test
+    public void testMaterializesOnlyTypesReachableFromService() throws IOException {
+        IndexedIr ir = IndexedIr.open(write(IrFormat.COMPACT_JSON));
+
+        ConjureDefinition service = ir.forService(SERVICE);
+        assertThat(service.getServices()).isEqualTo(DEFINITION.getServices());
+        assertThat(service.getTypes()).containsExactly(DEFINITION.getTypes().get(0), DEFINITION.getTypes().get(1));
+        assertThat(service.getErrors()).isEmpty();
+
+        // once closed, only definitions which were materialized can still be looked up
+        ir.close();
+        assertThat(ir.type(ID)).contains(DEFINITION.getTypes().get(1));
+        assertThatThrownBy(() -> ir.type(UNUSED))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("IR is closed");
+    }
+
+    private Path write(IrFormat format) throws IOException {
+        Path path = temporaryFolder.newFile("ir-" + format.formatName() + format.fileExtension()).toPath();
+        IrWriter.write(DEFINITION, path, format);
+        return path;
+    }
+}
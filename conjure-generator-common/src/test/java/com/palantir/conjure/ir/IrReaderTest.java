@@ -0,0 +1,87 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class IrReaderTest {
+    private static final ConjureDefinition DEFINITION = ConjureDefinition.builder()
+            .version(1)
+            .types(TypeDefinition.alias(AliasDefinition.builder()
+                    .typeName(TypeName.of("Foo", "com.palantir.test"))
+                    .alias(Type.primitive(PrimitiveType.STRING))
+                    .docs(Documentation.of("Some docs."))
+                    .build()))
+            .build();
+
+    @Test
+    public void testRoundTripsEveryFormat() throws IOException {
+        for (IrFormat format : IrFormat.values()) {
+            byte[] bytes = write(format);
+            assertThat(IrReader.read(new ByteArrayInputStream(bytes)))
+                    .describedAs("format %s", format)
+                    .isEqualTo(DEFINITION);
+        }
+    }
+
+    @Test
+    public void testDetectsFormat() throws IOException {
+        assertThat(detect(IrFormat.JSON)).isEqualTo(IrFormat.JSON);
+        assertThat(detect(IrFormat.COMPACT_JSON)).isEqualTo(IrFormat.JSON);
+        assertThat(detect(IrFormat.SMILE)).isEqualTo(IrFormat.SMILE);
+        assertThat(detect(IrFormat.CBOR)).isEqualTo(IrFormat.CBOR);
+    }
+
+    @Test
+    public void testCompactJsonHasNoWhitespace() throws IOException {
+        assertThat(new String(write(IrFormat.COMPACT_JSON), StandardCharsets.UTF_8)).doesNotContain("\n", ": ");
+        assertThat(write(IrFormat.COMPACT_JSON).length).isLessThan(write(IrFormat.JSON).length);
+    }
+
+    @Test
+    public void testFormatNames() {
+        assertThat(IrFormat.fromName("compact-json")).isEqualTo(IrFormat.COMPACT_JSON);
+        assertThatThrownBy(() -> IrFormat.fromName("xml"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown IR format 'xml', expected one of json, compact-json, smile, cbor");
+    }
+
+    private static IrFormat detect(IrFormat format) throws IOException {
+        byte[] bytes = write(format);
+        return IrReader.detectFormat(bytes, bytes.length);
+    }
+
+    private static byte[] write(IrFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        IrWriter.write(DEFINITION, output, format);
+        return output.toByteArray();
+    }
+}
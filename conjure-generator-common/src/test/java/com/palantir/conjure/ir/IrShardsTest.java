@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SortedMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IrShardsTest {
+    private static final TypeName FOO = TypeName.of("Foo", "com.palantir.foo");
+    private static final TypeName BAR = TypeName.of("Bar", "com.palantir.bar");
+    private static final TypeDefinition FOO_DEFINITION = TypeDefinition.object(ObjectDefinition.builder()
+            .typeName(FOO)
+            .fields(FieldDefinition.builder()
+                    .fieldName(FieldName.of("bars"))
+                    .type(Type.list(ListType.of(Type.reference(BAR))))
+                    .build())
+            .build());
+    private static final TypeDefinition BAR_DEFINITION = TypeDefinition.alias(AliasDefinition.builder()
+            .typeName(BAR)
+            .alias(Type.primitive(PrimitiveType.STRING))
+            .build());
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ConjureDefinition definition = ConjureDefinition.builder()
+            .version(1)
+            .types(FOO_DEFINITION)
+            .types(BAR_DEFINITION)
+            .extensions(ImmutableMap.of("key", "value"))
+            .build();
+
+    @Test
+    public void testPartitionsByPackage() {
+        SortedMap<String, ConjureDefinition> shards = IrShards.partition(definition);
+
+        assertThat(shards).containsOnlyKeys("com.palantir.bar", "com.palantir.foo");
+        assertThat(shards.get("com.palantir.foo").getTypes()).containsExactly(FOO_DEFINITION);
+        assertThat(shards.get("com.palantir.foo").getExtensions()).isEqualTo(definition.getExtensions());
+        assertThat(IrShards.dependencies("com.palantir.foo", shards.get("com.palantir.foo")))
+                .containsExactly("com.palantir.bar");
+        assertThat(IrShards.dependencies("com.palantir.bar", shards.get("com.palantir.bar"))).isEmpty();
+    }
+
+    @Test
+    public void testWritesShardsAndManifest() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("ir");
+        IrManifest manifest = IrShards.write(definition, directory, IrFormat.SMILE);
+
+        assertThat(IrShards.readManifest(directory)).isEqualTo(manifest);
+        assertThat(manifest.shards()).containsEntry("com.palantir.foo", "shards/com.palantir.foo.smile");
+        assertThat(manifest.dependencies()).containsEntry("com.palantir.foo", ImmutableSet.of("com.palantir.bar"));
+        assertThat(IrShards.readShard(directory, manifest, "com.palantir.bar").getTypes())
+                .containsExactly(BAR_DEFINITION);
+
+        IrShards.write(
+                ConjureDefinition.builder().from(definition).types(ImmutableSet.of(BAR_DEFINITION)).build(),
+                directory,
+                IrFormat.SMILE);
+        assertThat(directory.toFile().list())
+                .containsExactlyInAnyOrder(IrShards.MANIFEST_FILE, IrShards.SHARD_DIRECTORY);
+        assertThat(directory.resolve(IrShards.SHARD_DIRECTORY).toFile().list())
+                .containsExactly("com.palantir.bar.smile");
+    }
+
+    @Test
+    public void testShardNamesDoNotCollideWithManifest() throws IOException {
+        TypeDefinition manifestPackageType = TypeDefinition.alias(AliasDefinition.builder()
+                .typeName(TypeName.of("Manifest", "manifest"))
+                .alias(Type.primitive(PrimitiveType.STRING))
+                .build());
+        TypeDefinition defaultPackageType = TypeDefinition.alias(AliasDefinition.builder()
+                .typeName(TypeName.of("Default", ""))
+                .alias(Type.primitive(PrimitiveType.STRING))
+                .build());
+        Path directory = temporaryFolder.getRoot().toPath().resolve("ir");
+        IrManifest manifest = IrShards.write(
+                ConjureDefinition.builder()
+                        .version(1)
+                        .types(manifestPackageType)
+                        .types(defaultPackageType)
+                        .build(),
+                directory,
+                IrFormat.JSON);
+
+        assertThat(manifest.shards())
+                .containsOnly(entry("manifest", "shards/manifest.json"), entry("", "shards/_default.json"));
+        assertThat(IrShards.readManifest(directory)).isEqualTo(manifest);
+        assertThat(IrShards.readShard(directory, manifest, "").getTypes()).containsExactly(defaultPackageType);
+    }
+
+    @Test
+    public void testDoesNotDeleteFilesOutsideShardDirectory() throws IOException {
+        Path directory = temporaryFolder.getRoot().toPath().resolve("ir");
+        Path outside = temporaryFolder.newFile("outside.json").toPath();
+        IrShards.write(definition, directory, IrFormat.JSON);
+        IrManifest tampered = IrManifest.builder()
+                .version(IrManifest.CURRENT_VERSION)
+                .putShards("com.palantir.baz", "shards/../../outside.json")
+                .build();
+        try (OutputStream output = Files.newOutputStream(directory.resolve(IrShards.MANIFEST_FILE))) {
+            IrWriter.writeValue(tampered, output, IrFormat.JSON);
+        }
+
+        IrShards.write(definition, directory, IrFormat.JSON);
+        assertThat(outside).exists();
+        assertThatThrownBy(() -> IrShards.readShard(directory, tampered, "com.palantir.baz"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("outside of the shard directory");
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.visitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ForwardingMap;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import com.palantir.conjure.either.Either;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.util.Map;
+import org.junit.Test;
+
+public class DealiasingTypeVisitorTest {
+    private static final TypeName OUTER = TypeName.of("Outer", "com.palantir.test");
+    private static final TypeName INNER = TypeName.of("Inner", "com.palantir.test");
+    private static final TypeName OBJECT = TypeName.of("Object", "com.palantir.test");
+    private static final Type LIST = Type.list(ListType.of(Type.primitive(PrimitiveType.INTEGER)));
+
+    @Test
+    public void testResolvesAliasChainsOnce() {
+        CountingMap objects = new CountingMap(ImmutableMap.of(
+                OUTER, alias(OUTER, Type.reference(INNER)),
+                INNER, alias(INNER, LIST)));
+        DealiasingTypeVisitor visitor = new DealiasingTypeVisitor(objects);
+
+        assertThat(visitor.dealias(Type.reference(OUTER))).isEqualTo(Either.right(LIST));
+        assertThat(visitor.dealias(Type.reference(INNER))).isEqualTo(Either.right(LIST));
+        assertThat(visitor.dealias(Type.reference(OUTER))).isEqualTo(Either.right(LIST));
+        assertThat(objects.lookups.count(OUTER)).isEqualTo(1);
+        assertThat(objects.lookups.count(INNER)).isEqualTo(1);
+    }
+
+    @Test
+    public void testResolvesAliasOfObjectToDefinition() {
+        TypeDefinition object = TypeDefinition.object(ObjectDefinition.of(OBJECT, ImmutableList.of(), docs()));
+        DealiasingTypeVisitor visitor = new DealiasingTypeVisitor(ImmutableMap.of(
+                OUTER, alias(OUTER, Type.reference(OBJECT)),
+                OBJECT, object));
+
+        assertThat(visitor.dealias(Type.reference(OUTER))).isEqualTo(Either.left(object));
+        assertThat(visitor.dealias(LIST)).isEqualTo(Either.right(LIST));
+    }
+
+    @Test
+    public void testRejectsAliasCycles() {
+        DealiasingTypeVisitor visitor = new DealiasingTypeVisitor(ImmutableMap.of(
+                OBJECT, alias(OBJECT, Type.reference(OUTER)),
+                OUTER, alias(OUTER, Type.reference(INNER)),
+                INNER, alias(INNER, Type.reference(OUTER))));
+
+        assertThatThrownBy(() -> visitor.dealias(Type.reference(OBJECT)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal alias cycle: Outer -> Inner -> Outer");
+    }
+
+    private static TypeDefinition alias(TypeName name, Type target) {
+        return TypeDefinition.alias(AliasDefinition.of(name, target, docs()));
+    }
+
+    private static Documentation docs() {
+        return Documentation.of("");
+    }
+
+    private static final class CountingMap extends ForwardingMap<TypeName, TypeDefinition> {
+        private final Map<TypeName, TypeDefinition> delegate;
+        private final Multiset<Object> lookups = HashMultiset.create();
+
+        CountingMap(Map<TypeName, TypeDefinition> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected Map<TypeName, TypeDefinition> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public TypeDefinition get(Object key) {
+            lookups.add(key);
+            return super.get(key);
+        }
+    }
+}
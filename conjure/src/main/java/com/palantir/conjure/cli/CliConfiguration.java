@@ -17,12 +17,14 @@
 package com.palantir.conjure.cli;
 
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.ir.IrFormat;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
@@ -35,11 +37,31 @@ public abstract class CliConfiguration {
 
     abstract Map<String, Object> extensions();
 
+    /** Directory used to cache the definitions of unchanged conjure files between compilations. */
+    abstract Optional<File> cacheDirectory();
+
+    @Value.Default
+    IrFormat format() {
+        return IrFormat.JSON;
+    }
+
+    /** Whether {@link #outputIrFile} is a directory to which one IR file is written per package. */
+    @Value.Default
+    boolean shardByPackage() {
+        return false;
+    }
+
     static Builder builder() {
         return new Builder();
     }
 
-    static CliConfiguration create(String input, String outputIrFile, Map<String, Object> extensions) {
+    static CliConfiguration create(
+            String input,
+            String outputIrFile,
+            Map<String, Object> extensions,
+            Optional<String> cacheDirectory,
+            IrFormat format,
+            boolean shardByPackage) {
         File inputFile = new File(input);
 
         Collection<File> inputFiles;
@@ -50,7 +72,9 @@ public abstract class CliConfiguration {
         }
 
         File outputFile = new File(outputIrFile);
-        if (outputFile.isDirectory()) {
+        if (shardByPackage && outputFile.isFile()) {
+            throw new RuntimeException("Output IR directory should not be a file: " + outputFile);
+        } else if (!shardByPackage && outputFile.isDirectory()) {
             throw new RuntimeException("Output IR file should not be a directory: " + outputFile);
         }
 
@@ -58,6 +82,9 @@ public abstract class CliConfiguration {
                 .inputFiles(inputFiles)
                 .outputIrFile(outputFile)
                 .extensions(extensions)
+                .cacheDirectory(cacheDirectory.map(File::new))
+                .format(format)
+                .shardByPackage(shardByPackage)
                 .build();
     }
 
@@ -0,0 +1,245 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.cli;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles conjure definitions on behalf of {@link DaemonClient clients}, so that repeated compilations run in a warm
+ * JVM and share cached definitions.
+ *
+ * <p>Java 8 has no support for Unix domain sockets, so the daemon listens on an ephemeral loopback port instead. The
+ * port and a random token are published in a daemon file readable only by the current user; requests which do not
+ * present the token are rejected. Each connection carries a single compilation as newline-delimited JSON: the client
+ * sends a {@link CompileRequest}, which the daemon answers with a {@link CompileAcknowledgement}. If the request was
+ * accepted, the client sends {@value #CONFIRMATION}, after which the daemon compiles and answers with a
+ * {@link CompileResponse}. Clients compile in-process instead only if they have not confirmed, so the output is never
+ * written by both.
+ *
+ * <p>Requests are compiled by a fixed number of threads. Connections beyond those that can be queued are closed
+ * immediately, as are connections which do not send a request in time.
+ */
+final class CompileDaemon implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(CompileDaemon.class);
+    private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int MAX_QUEUED_REQUESTS = 64;
+    private static final int REQUEST_TIMEOUT_MILLIS = 10_000;
+    static final String CONFIRMATION = "confirm";
+
+    private final ServerSocket serverSocket;
+    private final Path daemonFile;
+    private final DaemonAddress address;
+    private final Optional<Path> defaultCacheDirectory;
+    private final ExecutorService executor;
+
+    private CompileDaemon(
+            ServerSocket serverSocket, Path daemonFile, DaemonAddress address, Optional<Path> defaultCacheDirectory) {
+        this.serverSocket = serverSocket;
+        this.daemonFile = daemonFile;
+        this.address = address;
+        this.defaultCacheDirectory = defaultCacheDirectory;
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+                MAX_THREADS,
+                MAX_THREADS,
+                1,
+                TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(MAX_QUEUED_REQUESTS),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("conjure-daemon-%d")
+                        .setDaemon(true)
+                        .build());
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    /**
+     * Binds a loopback socket and publishes its address in {@code daemonFile}. Requests which don't specify a cache
+     * directory use {@code defaultCacheDirectory}, if present.
+     */
+    static CompileDaemon start(Path daemonFile, Optional<Path> defaultCacheDirectory) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        byte[] token = new byte[32];
+        new SecureRandom().nextBytes(token);
+        DaemonAddress address = DaemonAddress.of(
+                serverSocket.getLocalPort(), BaseEncoding.base16().encode(token), ConjureCli.VERSION);
+        try {
+            writeDaemonFile(daemonFile, address);
+        } catch (IOException | RuntimeException e) {
+            serverSocket.close();
+            throw e;
+        }
+        return new CompileDaemon(serverSocket, daemonFile, address, defaultCacheDirectory);
+    }
+
+    DaemonAddress address() {
+        return address;
+    }
+
+    /** Accepts connections until the daemon is {@link #close() closed}. */
+    void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            try {
+                executor.execute(() -> handle(socket));
+            } catch (RejectedExecutionException e) {
+                log.warn("Too many pending conjure daemon requests, rejecting connection");
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket closeable = socket;
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(closeable.getInputStream(), StandardCharsets.UTF_8));
+                Writer writer = new OutputStreamWriter(closeable.getOutputStream(), StandardCharsets.UTF_8)) {
+            closeable.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            CompileRequest request;
+            try {
+                request = ConjureCli.OBJECT_MAPPER.readValue(line, CompileRequest.class);
+            } catch (IOException e) {
+                send(writer, CompileAcknowledgement.rejected("Malformed request: " + e.getMessage()));
+                return;
+            }
+            Optional<String> rejection = rejection(request);
+            send(writer, rejection.map(CompileAcknowledgement::rejected).orElseGet(CompileAcknowledgement::accepted));
+            // a client which doesn't confirm in time has given up, and compiles in-process instead
+            if (!rejection.isPresent() && CONFIRMATION.equals(reader.readLine())) {
+                send(writer, compile(request));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to handle conjure daemon request", e);
+        }
+    }
+
+    private Optional<String> rejection(CompileRequest request) {
+        if (!MessageDigest.isEqual(
+                request.token().getBytes(StandardCharsets.UTF_8),
+                address.token().getBytes(StandardCharsets.UTF_8))) {
+            return Optional.of("Invalid daemon token");
+        }
+        if (!request.version().equals(address.version())) {
+            return Optional.of(
+                    "Client version " + request.version() + " does not match daemon version " + address.version());
+        }
+        return Optional.empty();
+    }
+
+    private CompileResponse compile(CompileRequest request) {
+        CliConfiguration config = request.toConfiguration();
+        if (!config.cacheDirectory().isPresent() && defaultCacheDirectory.isPresent()) {
+            config = CliConfiguration.builder()
+                    .from(config)
+                    .cacheDirectory(defaultCacheDirectory.get().toFile())
+                    .build();
+        }
+        try {
+            ConjureCli.CompileCommand.generate(config);
+            return CompileResponse.success();
+        } catch (RuntimeException e) {
+            return CompileResponse.failure(describe(e));
+        }
+    }
+
+    /** Stops accepting connections and removes the daemon file, unless another daemon has since replaced it. */
+    @Override
+    public void close() throws IOException {
+        try {
+            serverSocket.close();
+            executor.shutdown();
+        } finally {
+            if (DaemonClient.readAddress(daemonFile).filter(address::equals).isPresent()) {
+                Files.deleteIfExists(daemonFile);
+            }
+        }
+    }
+
+    private static void send(Writer writer, Object message) throws IOException {
+        writer.write(ConjureCli.OBJECT_MAPPER.writeValueAsString(message));
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.debug("Failed to close rejected conjure daemon connection", e);
+        }
+    }
+
+    private static void writeDaemonFile(Path daemonFile, DaemonAddress address) throws IOException {
+        Path directory = daemonFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, daemonFile.getFileName().toString(), ".tmp");
+        try {
+            if (Files.getFileStore(temp).supportsFileAttributeView("posix")) {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            }
+            Files.write(temp, ConjureCli.OBJECT_MAPPER.writeValueAsBytes(address));
+            Files.move(temp, daemonFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Flattens the causal chain, as the client only sees the message. */
+    private static String describe(Throwable throwable) {
+        StringBuilder message = new StringBuilder(throwable.toString());
+        for (Throwable cause = throwable.getCause(); cause != null; cause = cause.getCause()) {
+            message.append("\nCaused by: ").append(cause);
+        }
+        return message.toString();
+    }
+}
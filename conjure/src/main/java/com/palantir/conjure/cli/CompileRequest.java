@@ -0,0 +1,83 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.palantir.conjure.ir.IrFormat;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.immutables.value.Value;
+
+/** A {@link CliConfiguration} sent from a client to a {@link CompileDaemon}. Paths are absolute. */
+@Value.Immutable
+@Value.Style(jdkOnly = true)
+@JsonSerialize(as = ImmutableCompileRequest.class)
+@JsonDeserialize(as = ImmutableCompileRequest.class)
+interface CompileRequest {
+    String token();
+
+    /** {@link ConjureCli#VERSION Version} of the client, which must match that of the daemon. */
+    String version();
+
+    List<String> inputFiles();
+
+    String outputIrFile();
+
+    Map<String, Object> extensions();
+
+    Optional<String> cacheDirectory();
+
+    @Value.Default
+    default IrFormat format() {
+        return IrFormat.JSON;
+    }
+
+    @Value.Default
+    default boolean shardByPackage() {
+        return false;
+    }
+
+    static CompileRequest of(String token, CliConfiguration config) {
+        return ImmutableCompileRequest.builder()
+                .token(token)
+                .version(ConjureCli.VERSION)
+                .inputFiles(config.inputFiles().stream()
+                        .map(File::getAbsolutePath)
+                        .collect(Collectors.toList()))
+                .outputIrFile(config.outputIrFile().getAbsolutePath())
+                .extensions(config.extensions())
+                .cacheDirectory(config.cacheDirectory().map(File::getAbsolutePath))
+                .format(config.format())
+                .shardByPackage(config.shardByPackage())
+                .build();
+    }
+
+    default CliConfiguration toConfiguration() {
+        return CliConfiguration.builder()
+                .inputFiles(inputFiles().stream().map(File::new).collect(Collectors.toList()))
+                .outputIrFile(new File(outputIrFile()))
+                .extensions(extensions())
+                .cacheDirectory(cacheDirectory().map(File::new))
+                .format(format())
+                .shardByPackage(shardByPackage())
+                .build();
+    }
+}
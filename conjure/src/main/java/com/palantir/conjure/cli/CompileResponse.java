@@ -0,0 +1,38 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/** Result of a {@link CompileRequest}; the error is absent if the IR file was written successfully. */
+@Value.Immutable
+@JsonSerialize(as = ImmutableCompileResponse.class)
+@JsonDeserialize(as = ImmutableCompileResponse.class)
+interface CompileResponse {
+    Optional<String> error();
+
+    static CompileResponse success() {
+        return ImmutableCompileResponse.builder().build();
+    }
+
+    static CompileResponse failure(String error) {
+        return ImmutableCompileResponse.builder().error(error).build();
+    }
+}
@@ -22,25 +22,39 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.annotations.VisibleForTesting;
 import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.defs.DefinitionCache;
+import com.palantir.conjure.ir.IrFormat;
+import com.palantir.conjure.ir.IrShards;
+import com.palantir.conjure.ir.IrWriter;
 import com.palantir.conjure.spec.ConjureDefinition;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 
 @CommandLine.Command(
         name = "conjure",
         description = "CLI to generate Conjure IR from Conjure YML definitions.",
         mixinStandardHelpOptions = true,
-        subcommands = ConjureCli.CompileCommand.class)
+        subcommands = {ConjureCli.CompileCommand.class, ConjureCli.DaemonCommand.class})
 public final class ConjureCli implements Runnable {
     public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .registerModule(new Jdk8Module())
             .setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
+    /** Version of this CLI, or "unknown" when running from classes rather than the published jar. */
+    static final String VERSION = Optional.ofNullable(ConjureCli.class.getPackage().getImplementationVersion())
+            .orElse("unknown");
+
+    private static final String DEFAULT_DAEMON_FILE = "${sys:user.home}/.conjure/daemon.json";
 
     public static void main(String[] args) {
         System.exit(new CommandLine(new ConjureCli()).execute(args));
@@ -71,6 +85,38 @@ public final class ConjureCli implements Runnable {
         @Nullable
         private String extensions;
 
+        @CommandLine.Option(
+                names = "--cache-dir",
+                description = "Directory in which to cache the definitions of unchanged conjure files between "
+                        + "compilations.")
+        @Nullable
+        private String cacheDirectory;
+
+        @CommandLine.Option(
+                names = "--format",
+                description = "Encoding of the output IR file, one of json, compact-json, smile or cbor. Defaults to "
+                        + "${DEFAULT-VALUE}.",
+                defaultValue = "json",
+                converter = IrFormatConverter.class)
+        private IrFormat format;
+
+        @CommandLine.Option(
+                names = "--shard-by-package",
+                description = "Treat <output> as a directory, and write one IR file per conjure package to its "
+                        + IrShards.SHARD_DIRECTORY + " subdirectory, together with a " + IrShards.MANIFEST_FILE
+                        + " listing the packages each file references.")
+        private boolean shardByPackage;
+
+        @CommandLine.Option(
+                names = "--daemon-file",
+                description = "File through which a running conjure daemon is discovered. Defaults to "
+                        + "${DEFAULT-VALUE}.",
+                defaultValue = DEFAULT_DAEMON_FILE)
+        private String daemonFile;
+
+        @CommandLine.Option(names = "--no-daemon", description = "Always compile in-process.")
+        private boolean noDaemon;
+
         @CommandLine.Unmatched
         @Nullable
         private List<String> unmatchedOptions;
@@ -82,17 +128,27 @@ public final class ConjureCli implements Runnable {
                 System.err.println("Ignoring unknown options: " + unmatchedOptions);
             }
             CliConfiguration config = getConfiguration();
-            generate(config);
+            if (noDaemon || !DaemonClient.tryCompile(Paths.get(daemonFile), config)) {
+                generate(config);
+            }
         }
 
         @VisibleForTesting
         static void generate(CliConfiguration config) {
+            ConjureDefinition parsed = config.cacheDirectory()
+                    .map(directory -> DefinitionCache.create(directory.toPath())
+                            .parse(config.inputFiles()))
+                    .orElseGet(() -> Conjure.parse(config.inputFiles()));
             ConjureDefinition definition = ConjureDefinition.builder()
-                    .from(Conjure.parse(config.inputFiles()))
+                    .from(parsed)
                     .extensions(config.extensions())
                     .build();
             try {
-                OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(config.outputIrFile(), definition);
+                if (config.shardByPackage()) {
+                    IrShards.write(definition, config.outputIrFile().toPath(), config.format());
+                } else {
+                    IrWriter.writeIfChanged(definition, config.outputIrFile().toPath(), config.format());
+                }
             } catch (IOException e) {
                 throw new RuntimeException("Failed to serialize IR file to " + config.outputIrFile(), e);
             }
@@ -105,7 +161,62 @@ public final class ConjureCli implements Runnable {
                     output,
                     Optional.ofNullable(extensions)
                             .map(ConjureCli::parseExtensions)
-                            .orElseGet(Collections::emptyMap));
+                            .orElseGet(Collections::emptyMap),
+                    Optional.ofNullable(cacheDirectory),
+                    format,
+                    shardByPackage);
+        }
+    }
+
+    static final class IrFormatConverter implements CommandLine.ITypeConverter<IrFormat> {
+        @Override
+        public IrFormat convert(String value) {
+            try {
+                return IrFormat.fromName(value);
+            } catch (IllegalArgumentException e) {
+                throw new CommandLine.TypeConversionException(e.getMessage());
+            }
+        }
+    }
+
+    @CommandLine.Command(
+            name = "daemon",
+            description = "Run a long-lived process which performs compilations on behalf of 'conjure compile'.",
+            mixinStandardHelpOptions = true,
+            usageHelpWidth = 120)
+    public static final class DaemonCommand implements Callable<Integer> {
+        private static final Logger log = LoggerFactory.getLogger(DaemonCommand.class);
+
+        @CommandLine.Option(
+                names = "--daemon-file",
+                description = "File in which to publish the address of the daemon. Defaults to ${DEFAULT-VALUE}.",
+                defaultValue = DEFAULT_DAEMON_FILE)
+        private String daemonFile;
+
+        @CommandLine.Option(
+                names = "--cache-dir",
+                description = "Directory in which to cache the definitions of unchanged conjure files for requests "
+                        + "which don't specify one. Defaults to a 'cache' directory next to the daemon file.")
+        @Nullable
+        private String cacheDirectory;
+
+        @Override
+        public Integer call() throws IOException {
+            Path daemonPath = Paths.get(daemonFile).toAbsolutePath();
+            Path cachePath = Optional.ofNullable(cacheDirectory)
+                    .map(Paths::get)
+                    .orElseGet(() -> daemonPath.resolveSibling("cache"));
+            CompileDaemon daemon = CompileDaemon.start(daemonPath, Optional.of(cachePath));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    daemon.close();
+                } catch (IOException e) {
+                    log.warn("Failed to shut down conjure daemon", e);
+                }
+            }));
+            log.info("Conjure daemon listening on port {}, published in {}", daemon.address().port(), daemonPath);
+            daemon.serve();
+            return 0;
         }
     }
 
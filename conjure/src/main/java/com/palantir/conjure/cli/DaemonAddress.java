@@ -0,0 +1,44 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+/** Contents of the file through which clients discover a running {@link CompileDaemon}. */
+@Value.Immutable
+@JsonSerialize(as = ImmutableDaemonAddress.class)
+@JsonDeserialize(as = ImmutableDaemonAddress.class)
+interface DaemonAddress {
+    /** Loopback port on which the daemon accepts connections. */
+    int port();
+
+    /** Secret which clients must present, so that only users able to read the daemon file can use the daemon. */
+    String token();
+
+    /** {@link ConjureCli#VERSION Version} of the daemon; clients of any other version compile in-process instead. */
+    String version();
+
+    static DaemonAddress of(int port, String token, String version) {
+        return ImmutableDaemonAddress.builder()
+                .port(port)
+                .token(token)
+                .version(version)
+                .build();
+    }
+}
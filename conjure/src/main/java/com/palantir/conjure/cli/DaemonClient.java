@@ -0,0 +1,129 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/** Forwards compilations to a running {@link CompileDaemon}. */
+final class DaemonClient {
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    private static final int ACKNOWLEDGEMENT_TIMEOUT_MILLIS = 10_000;
+
+    private DaemonClient() {}
+
+    /**
+     * Asks the daemon published in {@code daemonFile} to perform the given compilation. Returns false without
+     * compiling if no daemon of this CLI's version is reachable, or it rejects or does not acknowledge the request in
+     * time, in which case the caller should compile in-process. Once the daemon has accepted the request it owns the
+     * output, so compilation errors reported by the daemon, and failures to receive its result, are thrown instead.
+     */
+    static boolean tryCompile(Path daemonFile, CliConfiguration config) {
+        Optional<DaemonAddress> address = readAddress(daemonFile);
+        if (!address.isPresent() || !address.get().version().equals(ConjureCli.VERSION)) {
+            return false;
+        }
+
+        Socket socket = new Socket();
+        try {
+            BufferedReader reader;
+            try {
+                socket.connect(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), address.get().port()),
+                        CONNECT_TIMEOUT_MILLIS);
+                socket.setSoTimeout(ACKNOWLEDGEMENT_TIMEOUT_MILLIS);
+                reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+                send(writer, ConjureCli.OBJECT_MAPPER.writeValueAsString(
+                        CompileRequest.of(address.get().token(), config)));
+                String line = reader.readLine();
+                if (line == null
+                        || ConjureCli.OBJECT_MAPPER
+                                .readValue(line, CompileAcknowledgement.class)
+                                .rejection()
+                                .isPresent()) {
+                    return false;
+                }
+                // compilations may take arbitrarily long, and a daemon which exits closes the connection
+                socket.setSoTimeout(0);
+                send(writer, CompileDaemon.CONFIRMATION);
+            } catch (IOException e) {
+                // stale daemon file, or a daemon that went away or is busy; fall back to compiling in-process
+                return false;
+            }
+
+            CompileResponse response = readResponse(reader);
+            response.error().ifPresent(error -> {
+                throw new RuntimeException("Conjure daemon failed to compile: " + error);
+            });
+            return true;
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    private static CompileResponse readResponse(BufferedReader reader) {
+        String line;
+        try {
+            line = reader.readLine();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to receive result from conjure daemon", e);
+        }
+        if (line == null) {
+            throw new RuntimeException("Conjure daemon exited before completing the compilation");
+        }
+        try {
+            return ConjureCli.OBJECT_MAPPER.readValue(line, CompileResponse.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse result from conjure daemon", e);
+        }
+    }
+
+    private static void send(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing is left to be read from or written to the daemon
+        }
+    }
+
+    static Optional<DaemonAddress> readAddress(Path daemonFile) {
+        if (!Files.isRegularFile(daemonFile)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(ConjureCli.OBJECT_MAPPER.readValue(daemonFile.toFile(), DaemonAddress.class));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * (c) Copyright 2020 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class CompileDaemonTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path daemonFile;
+    private CompileDaemon daemon;
+    private File outputFile;
+
+    @Before
+    public void before() throws IOException {
+        daemonFile = folder.getRoot().toPath().resolve("daemon.json");
+        daemon = CompileDaemon.start(daemonFile, Optional.of(folder.newFolder("cache").toPath()));
+        Thread server = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+        outputFile = new File(folder.getRoot(), "conjureIr.json");
+    }
+
+    @After
+    public void after() throws IOException {
+        daemon.close();
+    }
+
+    @Test
+    public void compilesThroughDaemon() {
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputFile)
+                .build();
+        assertThat(DaemonClient.tryCompile(daemonFile, configuration)).isTrue();
+        assertThat(outputFile.isFile()).isTrue();
+    }
+
+    @Test
+    public void reportsDaemonCompilationErrors() throws IOException {
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(folder.newFile("empty.yml")))
+                .outputIrFile(outputFile)
+                .build();
+        assertThatThrownBy(() -> DaemonClient.tryCompile(daemonFile, configuration))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("MismatchedInputException");
+    }
+
+    @Test
+    public void fallsBackOnVersionMismatch() throws IOException {
+        DaemonAddress address = daemon.address();
+        ConjureCli.OBJECT_MAPPER.writeValue(
+                daemonFile.toFile(), DaemonAddress.of(address.port(), address.token(), "0.0.0-other"));
+
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputFile)
+                .build();
+        assertThat(DaemonClient.tryCompile(daemonFile, configuration)).isFalse();
+        assertThat(outputFile).doesNotExist();
+    }
+
+    @Test
+    public void fallsBackWhenDaemonRejectsRequest() throws IOException {
+        DaemonAddress address = daemon.address();
+        ConjureCli.OBJECT_MAPPER.writeValue(
+                daemonFile.toFile(), DaemonAddress.of(address.port(), "invalid", address.version()));
+
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputFile)
+                .build();
+        assertThat(DaemonClient.tryCompile(daemonFile, configuration)).isFalse();
+        assertThat(outputFile).doesNotExist();
+    }
+
+    @Test
+    public void fallsBackWithoutDaemon() throws IOException {
+        daemon.close();
+        assertThat(daemonFile).doesNotExist();
+
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputFile)
+                .build();
+        assertThat(DaemonClient.tryCompile(daemonFile, configuration)).isFalse();
+        assertThat(outputFile).doesNotExist();
+    }
+}
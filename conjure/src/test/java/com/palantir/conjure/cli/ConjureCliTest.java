@@ -20,9 +20,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.ir.IrFormat;
+import com.palantir.conjure.ir.IrManifest;
+import com.palantir.conjure.ir.IrReader;
+import com.palantir.conjure.ir.IrShards;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Before;
 import org.junit.Rule;
@@ -64,6 +73,19 @@ public final class ConjureCliTest {
         assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
     }
 
+    @Test
+    public void parsesOutputFormat() {
+        String[] args = {
+            "compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--format", "compact-json"
+        };
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli())
+                .parseArgs(args)
+                .asCommandLineList()
+                .get(1)
+                .getCommand();
+        assertThat(cmd.getConfiguration().format()).isEqualTo(IrFormat.COMPACT_JSON);
+    }
+
     @Test
     public void discoversFilesInDirectory() {
         String[] args = {"compile", folder.getRoot().getAbsolutePath(), outputFile.getAbsolutePath()};
@@ -137,6 +159,84 @@ public final class ConjureCliTest {
         assertThat(outputFile.isFile()).isTrue();
     }
 
+    @Test
+    public void skipsWriteWhenIrIsUnchanged() throws IOException {
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputFile)
+                .build();
+        ConjureCli.CompileCommand.generate(configuration);
+        FileTime written = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(outputFile.toPath(), written);
+
+        ConjureCli.CompileCommand.generate(configuration);
+        assertThat(Files.getLastModifiedTime(outputFile.toPath())).isEqualTo(written);
+
+        ConjureCli.CompileCommand.generate(CliConfiguration.builder()
+                .from(configuration)
+                .putExtensions("foo", "bar")
+                .build());
+        assertThat(Files.getLastModifiedTime(outputFile.toPath())).isNotEqualTo(written);
+        assertThat(folder.getRoot().list()).containsExactlyInAnyOrder("inputs", outputFile.getName());
+    }
+
+    @Test
+    public void writesIrWithDefaultOrExistingPermissions() throws IOException {
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputFile)
+                .build();
+        ConjureCli.CompileCommand.generate(configuration);
+        assertThat(Files.getPosixFilePermissions(outputFile.toPath()))
+                .isEqualTo(Files.getPosixFilePermissions(folder.newFile("reference").toPath()));
+
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+        Files.setPosixFilePermissions(outputFile.toPath(), permissions);
+        ConjureCli.CompileCommand.generate(CliConfiguration.builder()
+                .from(configuration)
+                .putExtensions("foo", "bar")
+                .build());
+        assertThat(Files.getPosixFilePermissions(outputFile.toPath())).isEqualTo(permissions);
+    }
+
+    @Test
+    public void generatesShardedIr() throws IOException {
+        File outputDirectory = new File(folder.getRoot(), "ir");
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(outputDirectory)
+                .shardByPackage(true)
+                .build();
+        ConjureCli.CompileCommand.generate(configuration);
+
+        IrManifest manifest = IrShards.readManifest(outputDirectory.toPath());
+        assertThat(manifest.shards()).isNotEmpty();
+        for (String conjurePackage : manifest.shards().keySet()) {
+            assertThat(IrShards.readShard(outputDirectory.toPath(), manifest, conjurePackage)
+                            .getVersion())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void generatesBinaryIr() throws IOException {
+        File jsonFile = new File(folder.getRoot(), "conjureIr.json");
+        File smileFile = new File(folder.getRoot(), "conjureIr.smile");
+        CliConfiguration configuration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                .outputIrFile(jsonFile)
+                .build();
+        ConjureCli.CompileCommand.generate(configuration);
+        ConjureCli.CompileCommand.generate(CliConfiguration.builder()
+                .from(configuration)
+                .outputIrFile(smileFile)
+                .format(IrFormat.SMILE)
+                .build());
+
+        assertThat(smileFile.length()).isLessThan(jsonFile.length());
+        assertThat(IrReader.read(smileFile.toPath())).isEqualTo(IrReader.read(jsonFile.toPath()));
+    }
+
     @Test
     public void throwsWhenInvalidDefinition() throws Exception {
         CliConfiguration configuration = CliConfiguration.builder()